@@ -33,7 +33,299 @@ public @interface AutoBuilder {
    * {@link ThreadLocal} field.
    * Leave this at {@code false} if you wish to prevent this.</p>
    *
+   * <p>Setting this to {@code true} is the same as
+   * setting {@link #reuse()} to {@link Reuse#THREAD_LOCAL}.</p>
+   *
    * @return whether the generated code should cache and reuse builder instances
    */
   boolean reuseBuilder() default false;
+
+  /**
+   * <p>Determines where the generated code caches builder instances
+   * for reuse.</p>
+   *
+   * @return the reuse strategy
+   * @see Reuse
+   */
+  Reuse reuse() default Reuse.NONE;
+
+  /**
+   * <p>The number of builder instances that each thread caches,
+   * if {@link #reuse()} is {@link Reuse#THREAD_LOCAL}.</p>
+   *
+   * <p>A value greater than one allows stacked builder calls,
+   * where a new builder is needed before {@code build()}
+   * has been called on the &quot;previous&quot; builder,
+   * to reuse builder instances as well,
+   * up to this depth.</p>
+   *
+   * @return the number of builder instances per thread
+   */
+  int reuseDepth() default 1;
+
+  /**
+   * <p>If true, the builder has the methods {@code reset()},
+   * {@code reset(input)} and {@code buildAndReset()},
+   * so that the caller can keep a builder instance
+   * and use it for many builds.</p>
+   *
+   * <p>These methods are always generated if the builder is reused,
+   * see {@link #reuse()}, or if {@link #dirtyTracking()}
+   * or {@link #transformAll()} is true.</p>
+   *
+   * @return whether the builder should have reset methods
+   */
+  boolean resettable() default false;
+
+  /**
+   * <p>If true, the builder has the static methods {@code transformAll}
+   * and {@code parallelTransformAll}, which apply the same change
+   * to many objects, by loading them into a single builder one after another.</p>
+   *
+   * @return whether the builder should have the batch transform methods
+   */
+  boolean transformAll() default false;
+
+  /**
+   * <p>If true, the builder keeps track of which properties
+   * have been written since it was last reset.
+   * When a builder is reset, either by {@code reset()}
+   * or because it is reused, only these properties are cleared.</p>
+   *
+   * <p>This makes resetting cheaper for value classes
+   * with many properties, when only a few of them are set,
+   * at the cost of a little extra work in each setter.</p>
+   *
+   * @return whether the generated code should track the properties that were written
+   */
+  boolean dirtyTracking() default false;
+
+  /**
+   * <p>If true, {@code toBuilder(input)} does not copy the properties
+   * of {@code input} into the builder.
+   * Instead, the builder keeps a reference to {@code input},
+   * and {@code build()} reads the properties that were not changed
+   * directly from {@code input}.</p>
+   *
+   * <p>This makes {@code toBuilder(input)} cheaper for value classes
+   * with many properties, when only a few of them are changed.
+   * It implies {@link #dirtyTracking()}.</p>
+   *
+   * @return whether {@code toBuilder(input)} should defer copying the properties
+   */
+  boolean lazyToBuilder() default false;
+
+  /**
+   * <p>If true, {@code build()} returns the input of
+   * {@code toBuilder(input)} itself, rather than a new instance,
+   * if none of the properties has changed.
+   * By default, the properties are compared by reference,
+   * see {@link #compareWithEquals()}.
+   * A property with a non-empty accumulator, like a list that
+   * was modified via an {@code addTo} method, always counts as changed.</p>
+   *
+   * @return whether {@code build()} may return the input of {@code toBuilder(input)}
+   */
+  boolean returnSourceIfUnchanged() default false;
+
+  /**
+   * <p>If {@link #returnSourceIfUnchanged()} is true,
+   * compare the properties with {@code equals}, rather than by reference.</p>
+   *
+   * @return whether the properties are compared with {@code equals}
+   */
+  boolean compareWithEquals() default false;
+
+  /**
+   * <p>If true, the accumulators of {@code java.util.List},
+   * {@code java.util.Set} and {@code java.util.Map} properties
+   * are cleared rather than discarded when the builder is reset,
+   * so that a reused builder does not have to grow them again.
+   * {@code build()} returns an unmodifiable copy of the accumulator.</p>
+   *
+   * <p>This has no effect on the Guava collection types,
+   * because their builders can't be cleared,
+   * or on the types of a collection plugin that doesn't support it.</p>
+   *
+   * @return whether accumulators should be kept when the builder is reset
+   * @see #maxRetainedCapacity()
+   */
+  boolean recycleAccumulators() default false;
+
+  /**
+   * <p>If {@link #recycleAccumulators()} is true,
+   * an accumulator that has held more than this number of elements,
+   * or was asked to make room for more with {@code ensureCapacityFor},
+   * is discarded rather than cleared when the builder is reset,
+   * or when the setter of the property is called.
+   * This prevents a single large build from pinning memory.
+   * A property with a larger {@link Capacity} is never recycled.</p>
+   *
+   * @return the maximum size of an accumulator that is kept
+   */
+  int maxRetainedCapacity() default 1024;
+
+  /**
+   * <p>If true, {@code java.util.List} properties are accumulated
+   * in a persistent list, rather than an {@code ArrayList}.
+   * After {@code toBuilder(input)}, the {@code addTo} methods
+   * share the existing elements with {@code input}, rather than copying them,
+   * so that appending to a list property in a loop
+   * doesn't copy the whole list each time.</p>
+   *
+   * <p>The list that {@code build()} returns is unmodifiable.
+   * It may keep a larger array alive than its own elements need,
+   * because the array is shared with the lists that it was appended to.
+   * This has no effect on the Guava collection types.</p>
+   *
+   * @return whether list properties should share their elements after {@code toBuilder(input)}
+   */
+  boolean persistentLists() default false;
+
+  /**
+   * <p>If true, list and set properties with {@code Integer}, {@code Long}
+   * or {@code Double} elements are accumulated in a primitive array,
+   * and get {@code addTo} overloads that take an {@code int}, {@code long}
+   * or {@code double}.
+   * A {@code java.util.List} property is then built as a read-only
+   * list that is backed by the primitive array, so its elements are only boxed when they are read.
+   * The other collection types box each element once, in {@code build()}.</p>
+   *
+   * <p>The accumulator can't hold {@code null} elements.
+   * Adding a {@code null} element throws a {@code NullPointerException}.
+   * It is a compile error if such a property has a type from
+   * a collection plugin that doesn't support it.</p>
+   *
+   * @return whether accumulators of boxed numbers should store primitives
+   */
+  boolean unboxedAccumulators() default false;
+
+  /**
+   * <p>If true, a {@code Set} or {@code ImmutableSet} property with enum elements,
+   * or a {@code Map} or {@code ImmutableMap} property with enum keys,
+   * is accumulated in an {@code EnumSet} or {@code EnumMap}.
+   * The Guava types are built with {@code Sets.immutableEnumSet}
+   * and {@code Maps.immutableEnumMap}.
+   * The result iterates in the declaration order of the enum constants.</p>
+   *
+   * <p>The accumulator can't hold a {@code null} element or key.
+   * Adding one throws a {@code NullPointerException}.
+   * If the same key is put into an {@code ImmutableMap} property twice,
+   * the last value wins, rather than {@code build()} throwing
+   * an {@code IllegalArgumentException}.</p>
+   *
+   * <p>If {@link #jdkImmutableCollections()} is true, a {@code java.util}
+   * enum set or map is still built with {@code Set.copyOf} or {@code Map.copyOf},
+   * so it doesn't keep the declaration order.</p>
+   *
+   * @return whether enum sets and maps should be accumulated in an {@code EnumSet} or {@code EnumMap}
+   */
+  boolean enumAccumulators() default false;
+
+  /**
+   * <p>If true, a property that is an array of primitives, like {@code byte[]},
+   * gets {@code appendTo} and {@code appendAllTo} methods,
+   * which append to a growable buffer.
+   * {@code build()} hands over the buffer if it is exactly full,
+   * and returns a trimmed copy otherwise.</p>
+   *
+   * @return whether primitive array properties should get an accumulator
+   * @see DefensiveCopy
+   */
+  boolean arrayAccumulators() default false;
+
+  /**
+   * <p>If true, {@code java.util.List}, {@code Set} and {@code Map} properties
+   * are built with {@code List.copyOf}, {@code Set.copyOf} and {@code Map.copyOf},
+   * and the setters store such a copy as well.
+   * The result is immutable and right-sized, and no copy is made
+   * if the argument of a setter is already an immutable JDK collection.
+   * This requires Java 10 or later.</p>
+   *
+   * <p>These collections don't allow {@code null} elements,
+   * keys or values.
+   * The setter or {@code build()} throws a {@code NullPointerException}
+   * if there is one.
+   * This has no effect on the Guava collection types,
+   * or on lists if {@link #persistentLists()} is true.</p>
+   *
+   * @return whether java.util collections should be copied into immutable JDK collections
+   */
+  boolean jdkImmutableCollections() default false;
+
+  /**
+   * <p>The expected number of elements of a collection property.
+   * The accumulator of the property is created with room for
+   * this many elements, so it doesn't have to grow while
+   * it is filled via the {@code addTo} or {@code putIn} methods.</p>
+   *
+   * <p>This annotation goes on the accessor method of the property.
+   * The generated {@code ensureCapacityFor} methods can be used
+   * to give a hint at runtime instead.</p>
+   */
+  @Target(ElementType.METHOD)
+  @Retention(RetentionPolicy.SOURCE)
+  @interface Capacity {
+
+    /**
+     * @return the expected number of elements
+     */
+    int value();
+  }
+
+  /**
+   * <p>Makes the builder copy a primitive array property,
+   * rather than store and return the array it was given.
+   * The setter stores a copy of its argument,
+   * and {@code build()} always returns a new array
+   * if the property was filled via the {@code appendTo} methods.</p>
+   *
+   * <p>Without this annotation, the setter stores its argument as is,
+   * and {@code build()} hands off the accumulated array without copying it,
+   * if it happens to have the right size.</p>
+   *
+   * <p>This annotation goes on the accessor method of the property.
+   * It requires {@link #arrayAccumulators()}.</p>
+   */
+  @Target(ElementType.METHOD)
+  @Retention(RetentionPolicy.SOURCE)
+  @interface DefensiveCopy {
+  }
+
+  /**
+   * Strategies for builder reuse.
+   */
+  enum Reuse {
+
+    /**
+     * Each call to {@code builder()} or {@code toBuilder(input)}
+     * creates a new builder instance.
+     */
+    NONE,
+
+    /**
+     * Each thread caches one builder instance in a static
+     * {@link ThreadLocal} field.
+     * This works well with a limited number of long-lived threads,
+     * but not with virtual threads, because each virtual thread
+     * would get its own builder instance.
+     */
+    THREAD_LOCAL,
+
+    /**
+     * The builder instances are kept in a
+     * bounded lock-free pool that is shared by all threads,
+     * with roughly one slot per available processor.
+     * The slot that belongs to a thread is chosen by
+     * the identity hash of the {@link Thread} object,
+     * so a virtual thread is hashed like any other thread.
+     * If the slot that belongs to the current thread is empty,
+     * the other slots are searched before a new builder is created,
+     * and {@code build()} returns the builder to the next free slot.
+     * The number of retained builders is bounded by the number of slots,
+     * not by the number of threads.
+     * This also lets stacked builder calls reuse builder instances.
+     */
+    POOL
+  }
 }
@@ -0,0 +1,60 @@
+package net.autobuilder.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills the {@code java.util} accumulators of a reused builder,
+ * with and without {@code recycleAccumulators}.
+ * Run with {@code -prof gc} to see the difference in allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AccumulatorBenchmark {
+
+  @Param({"4", "64"})
+  private int size;
+
+  private String[] feathers;
+  private String name;
+
+  @Setup
+  public void setup() {
+    feathers = new String[size];
+    for (int i = 0; i < size; i++) {
+      feathers[i] = "feather" + i;
+    }
+    name = "Tweety";
+  }
+
+  @Benchmark
+  public UtilBird builderReuse() {
+    UtilBird_Builder builder = UtilBird_Builder.builder();
+    for (String feather : feathers) {
+      builder.addToFeathers(feather);
+    }
+    return builder.putInEyes(name, name)
+        .name(name)
+        .build();
+  }
+
+  @Benchmark
+  public RecycledBird builderRecycle() {
+    RecycledBird_Builder builder = RecycledBird_Builder.builder();
+    for (String feather : feathers) {
+      builder.addToFeathers(feather);
+    }
+    return builder.putInEyes(name, name)
+        .name(name)
+        .build();
+  }
+}
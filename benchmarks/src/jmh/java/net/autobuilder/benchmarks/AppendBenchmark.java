@@ -0,0 +1,56 @@
+package net.autobuilder.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grows a list property one element at a time,
+ * with {@code toBuilder(log).addToEvents(event).build()},
+ * with and without {@code persistentLists}.
+ * Without it, each append copies the list,
+ * so the time per append grows with {@code size}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AppendBenchmark {
+
+  @Param({"16", "256", "4096"})
+  private int size;
+
+  private String[] events;
+
+  @Setup
+  public void setup() {
+    events = new String[size];
+    for (int i = 0; i < size; i++) {
+      events[i] = "event" + i;
+    }
+  }
+
+  @Benchmark
+  public EventLog append() {
+    EventLog log = EventLog_Builder.builder().build();
+    for (String event : events) {
+      log = EventLog_Builder.toBuilder(log).addToEvents(event).build();
+    }
+    return log;
+  }
+
+  @Benchmark
+  public PersistentEventLog appendPersistent() {
+    PersistentEventLog log = PersistentEventLog_Builder.builder().build();
+    for (String event : events) {
+      log = PersistentEventLog_Builder.toBuilder(log).addToEvents(event).build();
+    }
+    return log;
+  }
+}
@@ -0,0 +1,133 @@
+package net.autobuilder.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Builds values on 100k virtual threads, for each reuse strategy.
+ * Requires Java 21 at runtime.
+ *
+ * <p>{@code build} reports time and (with {@code -prof gc}) allocation.
+ * {@code footprint} keeps all threads alive after they have built their values,
+ * and reports the retained heap per thread in the {@code heapBytesPerThread} counter.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class VirtualThreadBenchmark {
+
+  private static final int THREADS = 100_000;
+  private static final int BUILDS_PER_THREAD = 10;
+
+  @Param({"NONE", "THREAD_LOCAL", "POOL"})
+  public String reuse;
+
+  private final LongAdder sink = new LongAdder();
+
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Footprint {
+    public long heapBytesPerThread;
+  }
+
+  @Benchmark
+  public long build() throws InterruptedException {
+    ExecutorService executor = newVirtualThreadPerTaskExecutor();
+    for (int i = 0; i < THREADS; i++) {
+      executor.execute(this::buildSome);
+    }
+    executor.shutdown();
+    executor.awaitTermination(1, TimeUnit.MINUTES);
+    return sink.sum();
+  }
+
+  // aux counters are not reported in SingleShotTime mode
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  public long footprint(Footprint footprint) throws InterruptedException {
+    CountDownLatch built = new CountDownLatch(THREADS);
+    CountDownLatch done = new CountDownLatch(1);
+    ExecutorService executor = newVirtualThreadPerTaskExecutor();
+    long before = usedHeap();
+    for (int i = 0; i < THREADS; i++) {
+      executor.execute(() -> {
+        buildSome();
+        built.countDown();
+        try {
+          done.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      });
+    }
+    built.await();
+    footprint.heapBytesPerThread = (usedHeap() - before) / THREADS;
+    done.countDown();
+    executor.shutdown();
+    executor.awaitTermination(1, TimeUnit.MINUTES);
+    return sink.sum();
+  }
+
+  private void buildSome() {
+    long legs = 0;
+    for (int i = 0; i < BUILDS_PER_THREAD; i++) {
+      legs += buildOne(i);
+    }
+    sink.add(legs);
+  }
+
+  private int buildOne(int i) {
+    switch (reuse) {
+      case "THREAD_LOCAL":
+        return ReusedAnimal_Builder.builder()
+            .name("Betty")
+            .numberOfLegs(i)
+            .maybe(Optional.empty())
+            .build().getNumberOfLegs();
+      case "POOL":
+        return PooledAnimal_Builder.builder()
+            .name("Betty")
+            .numberOfLegs(i)
+            .maybe(Optional.empty())
+            .build().getNumberOfLegs();
+      default:
+        return PlainAnimal_Builder.builder()
+            .name("Betty")
+            .numberOfLegs(i)
+            .maybe(Optional.empty())
+            .build().getNumberOfLegs();
+    }
+  }
+
+  private static long usedHeap() {
+    System.gc();
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
+  // Executors.newVirtualThreadPerTaskExecutor() is only available since Java 21
+  private static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("This benchmark requires Java 21", e);
+    }
+  }
+}
@@ -0,0 +1,78 @@
+package net.autobuilder.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cleanup of a reused builder for a value class with 48 properties,
+ * with and without dirty tracking, and with a lazy toBuilder.
+ * The {@code builder} benchmarks write three properties,
+ * the {@code toBuilder} benchmarks copy all of them, except in lazy mode.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WideBenchmark {
+
+  private String name;
+  private int count;
+
+  private WideRecord record;
+  private DirtyWideRecord dirtyRecord;
+  private LazyWideRecord lazyRecord;
+
+  @Setup
+  public void setup() {
+    name = "Betty";
+    count = 4;
+    record = WideRecord_Builder.builder().field00(name).build();
+    dirtyRecord = DirtyWideRecord_Builder.builder().field00(name).build();
+    lazyRecord = LazyWideRecord_Builder.builder().field00(name).build();
+  }
+
+  @Benchmark
+  public WideRecord builder() {
+    return WideRecord_Builder.builder()
+        .field00(name)
+        .field25(count)
+        .addToField47(name)
+        .build();
+  }
+
+  @Benchmark
+  public DirtyWideRecord builderDirtyTracking() {
+    return DirtyWideRecord_Builder.builder()
+        .field00(name)
+        .field25(count)
+        .addToField47(name)
+        .build();
+  }
+
+  @Benchmark
+  public WideRecord toBuilder() {
+    return WideRecord_Builder.toBuilder(record)
+        .field25(count)
+        .build();
+  }
+
+  @Benchmark
+  public DirtyWideRecord toBuilderDirtyTracking() {
+    return DirtyWideRecord_Builder.toBuilder(dirtyRecord)
+        .field25(count)
+        .build();
+  }
+
+  @Benchmark
+  public LazyWideRecord toBuilderLazy() {
+    return LazyWideRecord_Builder.toBuilder(lazyRecord)
+        .field25(count)
+        .build();
+  }
+}
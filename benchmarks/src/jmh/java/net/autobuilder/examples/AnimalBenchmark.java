@@ -0,0 +1,73 @@
+package net.autobuilder.examples;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the different ways of creating and updating the {@link Animal} example:
+ * the auto-value constructor, and its reused ({@code reuseBuilder = true}) builder.
+ * See {@code VirtualThreadBenchmark} for a comparison with a fresh builder.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AnimalBenchmark {
+
+  private String name;
+  private int numberOfLegs;
+  private Optional<String> maybe;
+
+  private Animal animal;
+
+  @Setup
+  public void setup() {
+    name = "Betty";
+    numberOfLegs = 4;
+    maybe = Optional.of("maybe");
+    animal = new AutoValue_Animal("Sally", 3, false, Optional.empty(), Optional.empty());
+  }
+
+  @Benchmark
+  public Animal constructor() {
+    return new AutoValue_Animal(name, numberOfLegs, true, Optional.empty(), maybe);
+  }
+
+  @Benchmark
+  public Animal builder() {
+    return Animal_Builder.builder()
+        .name(name)
+        .numberOfLegs(numberOfLegs)
+        .good(true)
+        .maybeMaybe(Optional.empty())
+        .maybe(maybe)
+        .build();
+  }
+
+  @Benchmark
+  public Animal toBuilder() {
+    return Animal_Builder.toBuilder(animal)
+        .name(name)
+        .build();
+  }
+
+  /**
+   * The inner builder is requested while the outer one is still in use,
+   * so the per-thread factory has to allocate.
+   */
+  @Benchmark
+  public Animal toBuilderStacked() {
+    Animal_Builder outer = Animal_Builder.toBuilder(animal);
+    Animal inner = Animal_Builder.toBuilder(animal)
+        .name(name)
+        .build();
+    return outer.name(inner.getName()).build();
+  }
+}
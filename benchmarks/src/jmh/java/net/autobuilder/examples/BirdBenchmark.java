@@ -0,0 +1,71 @@
+package net.autobuilder.examples;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Same as {@link AnimalBenchmark}, but for the {@link Bird} example,
+ * which has collection properties that are filled via the accumulator methods.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BirdBenchmark {
+
+  private Date feather;
+  private String eye;
+  private List<Date> beak;
+
+  private Bird bird;
+
+  @Setup
+  public void setup() {
+    feather = new Date(0);
+    eye = "eye";
+    beak = Arrays.asList(new Date(1), new Date(2));
+    bird = new AutoValue_Bird(ImmutableList.of(new Date(3), new Date(4)),
+        ImmutableSet.of("left", "right"), ImmutableMap.of("left", "blue"), beak,
+        Collections.emptySet(), Collections.emptyMap(), false, null);
+  }
+
+  @Benchmark
+  public Bird constructor() {
+    return new AutoValue_Bird(ImmutableList.of(feather), ImmutableSet.of(eye),
+        ImmutableMap.of(eye, eye), beak, Collections.emptySet(), Collections.emptyMap(), true, null);
+  }
+
+  @Benchmark
+  public Bird builder() {
+    return Bird_Builder.builder()
+        .addToFeathers(feather)
+        .addToFeet(eye)
+        .putInEyes(eye, eye)
+        .beak(beak)
+        .wings(Collections.emptySet())
+        .tail(Collections.emptyMap())
+        .inUse(true)
+        .build();
+  }
+
+  @Benchmark
+  public Bird toBuilder() {
+    return Bird_Builder.toBuilder(bird)
+        .addToFeathers(feather)
+        .inUse(true)
+        .build();
+  }
+}
@@ -0,0 +1,58 @@
+package net.autobuilder.examples;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Applies the same change to a list of objects:
+ * one builder per element, versus {@code transformAll},
+ * for the {@link Animal} example.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransformBenchmark {
+
+  @Param({"1000", "100000"})
+  private int size;
+
+  private List<Animal> animals;
+
+  @Setup
+  public void setup() {
+    animals = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      animals.add(new AutoValue_Animal("Sally", i, false, Optional.empty(), Optional.empty()));
+    }
+  }
+
+  @Benchmark
+  public List<Animal> streamToBuilder() {
+    return animals.stream()
+        .map(animal -> Animal_Builder.toBuilder(animal).numberOfLegs(4).build())
+        .collect(toList());
+  }
+
+  @Benchmark
+  public List<Animal> transformAll() {
+    return Animal_Builder.transformAll(animals, builder -> builder.numberOfLegs(4));
+  }
+
+  @Benchmark
+  public List<Animal> parallelTransformAll() {
+    return Animal_Builder.parallelTransformAll(animals, builder -> builder.numberOfLegs(4));
+  }
+}
@@ -0,0 +1,13 @@
+package net.autobuilder.benchmarks;
+
+import com.google.auto.value.AutoValue;
+import net.autobuilder.AutoBuilder;
+
+import java.util.List;
+
+@AutoBuilder
+@AutoValue
+abstract class EventLog {
+
+  abstract List<String> events();
+}
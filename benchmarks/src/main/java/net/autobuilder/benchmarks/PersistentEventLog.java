@@ -0,0 +1,13 @@
+package net.autobuilder.benchmarks;
+
+import com.google.auto.value.AutoValue;
+import net.autobuilder.AutoBuilder;
+
+import java.util.List;
+
+@AutoBuilder(persistentLists = true)
+@AutoValue
+abstract class PersistentEventLog {
+
+  abstract List<String> events();
+}
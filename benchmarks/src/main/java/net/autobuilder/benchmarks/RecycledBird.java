@@ -0,0 +1,21 @@
+package net.autobuilder.benchmarks;
+
+import com.google.auto.value.AutoValue;
+import net.autobuilder.AutoBuilder;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Same as {@link UtilBird}, but with recycled accumulators.
+ */
+@AutoBuilder(reuse = AutoBuilder.Reuse.THREAD_LOCAL, recycleAccumulators = true)
+@AutoValue
+abstract class RecycledBird {
+
+  abstract List<String> feathers();
+
+  abstract Map<String, String> eyes();
+
+  abstract String name();
+}
@@ -0,0 +1,19 @@
+package net.autobuilder.benchmarks;
+
+import com.google.auto.value.AutoValue;
+import net.autobuilder.AutoBuilder;
+
+import java.util.Optional;
+
+@AutoBuilder(reuseBuilder = true)
+@AutoValue
+abstract class ReusedAnimal {
+
+  abstract String getName();
+
+  abstract int getNumberOfLegs();
+
+  abstract boolean isGood();
+
+  abstract Optional<String> maybe();
+}
@@ -0,0 +1,18 @@
+package net.autobuilder.benchmarks;
+
+import com.google.auto.value.AutoValue;
+import net.autobuilder.AutoBuilder;
+
+import java.util.List;
+import java.util.Map;
+
+@AutoBuilder(reuse = AutoBuilder.Reuse.THREAD_LOCAL)
+@AutoValue
+abstract class UtilBird {
+
+  abstract List<String> feathers();
+
+  abstract Map<String, String> eyes();
+
+  abstract String name();
+}
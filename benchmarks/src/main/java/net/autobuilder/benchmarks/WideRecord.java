@@ -0,0 +1,108 @@
+package net.autobuilder.benchmarks;
+
+import com.google.auto.value.AutoValue;
+import net.autobuilder.AutoBuilder;
+
+import java.util.List;
+import java.util.Optional;
+
+@AutoBuilder(reuse = AutoBuilder.Reuse.THREAD_LOCAL)
+@AutoValue
+abstract class WideRecord {
+
+  abstract Optional<String> field00();
+
+  abstract int field01();
+
+  abstract Optional<String> field02();
+
+  abstract long field03();
+
+  abstract Optional<String> field04();
+
+  abstract List<String> field05();
+
+  abstract Optional<String> field06();
+
+  abstract int field07();
+
+  abstract Optional<String> field08();
+
+  abstract long field09();
+
+  abstract Optional<String> field10();
+
+  abstract List<String> field11();
+
+  abstract Optional<String> field12();
+
+  abstract int field13();
+
+  abstract Optional<String> field14();
+
+  abstract long field15();
+
+  abstract Optional<String> field16();
+
+  abstract List<String> field17();
+
+  abstract Optional<String> field18();
+
+  abstract int field19();
+
+  abstract Optional<String> field20();
+
+  abstract long field21();
+
+  abstract Optional<String> field22();
+
+  abstract List<String> field23();
+
+  abstract Optional<String> field24();
+
+  abstract int field25();
+
+  abstract Optional<String> field26();
+
+  abstract long field27();
+
+  abstract Optional<String> field28();
+
+  abstract List<String> field29();
+
+  abstract Optional<String> field30();
+
+  abstract int field31();
+
+  abstract Optional<String> field32();
+
+  abstract long field33();
+
+  abstract Optional<String> field34();
+
+  abstract List<String> field35();
+
+  abstract Optional<String> field36();
+
+  abstract int field37();
+
+  abstract Optional<String> field38();
+
+  abstract long field39();
+
+  abstract Optional<String> field40();
+
+  abstract List<String> field41();
+
+  abstract Optional<String> field42();
+
+  abstract int field43();
+
+  abstract Optional<String> field44();
+
+  abstract long field45();
+
+  abstract Optional<String> field46();
+
+  abstract List<String> field47();
+}
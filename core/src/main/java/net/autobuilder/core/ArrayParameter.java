@@ -0,0 +1,225 @@
+package net.autobuilder.core;
+
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.TypeName;
+import net.autobuilder.AutoBuilder;
+
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static net.autobuilder.core.Util.downcase;
+import static net.autobuilder.core.Util.upcase;
+
+/**
+ * A property whose type is an array of primitives, like {@code byte[]}.
+ * The elements can be appended to a growable buffer,
+ * which is a {@link PrimitiveList}.
+ */
+public final class ArrayParameter extends Parameter {
+
+  public final RegularParameter parameter;
+
+  // the component type
+  private final TypeKind kind;
+
+  // copy in the setter, and never hand off the buffer?
+  private final boolean defensiveCopy;
+
+  private ArrayParameter(RegularParameter parameter, TypeKind kind, boolean defensiveCopy) {
+    this.parameter = parameter;
+    this.kind = kind;
+    this.defensiveCopy = defensiveCopy;
+  }
+
+  /**
+   * @return an arrayish parameter, if this parameter
+   * represents an array of primitives and {@code arrayAccumulators} is set,
+   * or else {@link Optional#empty()}
+   */
+  static Optional<Parameter> maybeCreate(RegularParameter parameter, AutoBuilder options, boolean defensiveCopy) {
+    if (!options.arrayAccumulators()) {
+      return Optional.empty();
+    }
+    TypeMirror type = parameter.variableElement.asType();
+    if (type.getKind() != TypeKind.ARRAY) {
+      return Optional.empty();
+    }
+    TypeMirror componentType = ((ArrayType) type).getComponentType();
+    if (!componentType.getKind().isPrimitive()) {
+      return Optional.empty();
+    }
+    return Optional.of(new ArrayParameter(parameter, componentType.getKind(), defensiveCopy));
+  }
+
+  ArrayParameter withParameter(RegularParameter parameter) {
+    return new ArrayParameter(parameter, kind, defensiveCopy);
+  }
+
+  String builderFieldName() {
+    return downcase(parameter.setterName) + "Builder";
+  }
+
+  public FieldSpec asBuilderField() {
+    return FieldSpec.builder(Model.primitiveListClass(parameter.generatedClass, kind),
+        builderFieldName()).addModifiers(PRIVATE).build();
+  }
+
+  @Override
+  Optional<TypeKind> unboxedKind() {
+    return Optional.of(kind);
+  }
+
+  /**
+   * The code inside the setter.
+   */
+  public CodeBlock setterAssignmentCode() {
+    FieldSpec field = parameter.asField();
+    ParameterSpec p = parameter.asSetterParameter();
+    CodeBlock.Builder code = CodeBlock.builder();
+    if (defensiveCopy) {
+      code.addStatement("this.$N = $N != null ? $N.clone() : null", field, p, p);
+    } else {
+      code.addStatement("this.$N = $N", field, p);
+    }
+    return code.addStatement("this.$N = null", asBuilderField()).build();
+  }
+
+  @Override
+  CodeBlock witherValueBlock(ParameterSpec value) {
+    if (defensiveCopy) {
+      return CodeBlock.of("$N != null ? $N.clone() : null", value, value);
+    }
+    return super.witherValueBlock(value);
+  }
+
+  /**
+   * The property value in {@code build()}.
+   */
+  public CodeBlock buildBlock() {
+    FieldSpec builderField = asBuilderField();
+    return CodeBlock.of("$N != null ? $N.$L() : $N",
+        builderField, builderField, defensiveCopy ? "trimmedCopy" : "trimmed", parameter.asField());
+  }
+
+  public Optional<MethodSpec> appendToMethod(Model model) {
+    TypeMirror componentType = TypeTool.get().getPrimitiveType(kind);
+    ParameterSpec value = ParameterSpec.builder(TypeName.get(componentType), "value").build();
+    String methodName = "appendTo" + upcase(parameter.setterName);
+    if (model.isSetterMethodNameCollision(methodName, componentType)) {
+      return Optional.empty();
+    }
+    return Optional.of(method(methodName)
+        .addCode(initBlock(model))
+        .addStatement("this.$N.append($N)", asBuilderField(), value)
+        .addStatement("return this")
+        .addParameter(value)
+        .build());
+  }
+
+  public Optional<MethodSpec> appendAllToMethod(Model model) {
+    TypeMirror arrayType = parameter.type();
+    ParameterSpec values = ParameterSpec.builder(TypeName.get(arrayType), "values").build();
+    String methodName = "appendAllTo" + upcase(parameter.setterName);
+    if (model.isSetterMethodNameCollision(methodName, arrayType)) {
+      return Optional.empty();
+    }
+    return Optional.of(method(methodName)
+        .beginControlFlow("if ($N == null)", values)
+        .addStatement("return this")
+        .endControlFlow()
+        .addCode(initBlock(model))
+        .addStatement("this.$N.appendAll($N, 0, $N.length)", asBuilderField(), values, values)
+        .addStatement("return this")
+        .addParameter(values)
+        .build());
+  }
+
+  /**
+   * @return an {@code appendAllTo} overload that appends a range of the array
+   */
+  public Optional<MethodSpec> appendAllToRangeMethod(Model model) {
+    TypeMirror arrayType = parameter.type();
+    ParameterSpec values = ParameterSpec.builder(TypeName.get(arrayType), "values").build();
+    ParameterSpec offset = ParameterSpec.builder(TypeName.INT, "offset").build();
+    ParameterSpec length = ParameterSpec.builder(TypeName.INT, "length").build();
+    String methodName = "appendAllTo" + upcase(parameter.setterName);
+    // an overload of appendAllTo, so it is skipped along with it
+    if (model.isSetterMethodNameCollision(methodName, arrayType)) {
+      return Optional.empty();
+    }
+    return Optional.of(method(methodName)
+        .addJavadoc("Appends {@code length} elements of {@code values}, starting at {@code offset}.\n" +
+            "Like the other {@code appendAllTo} method, this does nothing if {@code values} is {@code null}.\n")
+        .beginControlFlow("if ($N == null)", values)
+        .addStatement("return this")
+        .endControlFlow()
+        .addCode(initBlock(model))
+        .addStatement("this.$N.appendAll($N, $N, $N)", asBuilderField(), values, offset, length)
+        .addStatement("return this")
+        .addParameter(values)
+        .addParameter(offset)
+        .addParameter(length)
+        .build());
+  }
+
+  public Optional<MethodSpec> ensureCapacityMethod(Model model) {
+    ParameterSpec expectedSize = ParameterSpec.builder(TypeName.INT, "expectedSize").build();
+    String methodName = "ensureCapacityFor" + upcase(parameter.setterName);
+    if (model.isSetterMethodNameCollision(methodName, TypeTool.get().getPrimitiveType(TypeKind.INT))) {
+      return Optional.empty();
+    }
+    FieldSpec builderField = asBuilderField();
+    FieldSpec field = parameter.asField();
+    return Optional.of(method(methodName)
+        .addJavadoc("Makes room for {@code expectedSize} elements,\n" +
+            "so that the accumulator doesn't have to grow while it is filled.\n")
+        .beginControlFlow("if (this.$N == null)", builderField)
+        .addStatement("this.$N = $T.of(this.$N, $N)",
+            builderField, model.primitiveListClass(kind), field, expectedSize)
+        .addStatement("this.$N = null", field)
+        .nextControlFlow("else")
+        .addStatement("this.$N.ensureCapacity($N)", builderField, expectedSize)
+        .endControlFlow()
+        .addStatement("return this")
+        .addParameter(expectedSize)
+        .build());
+  }
+
+  private MethodSpec.Builder method(String methodName) {
+    return MethodSpec.methodBuilder(methodName)
+        .addModifiers(FINAL)
+        .addModifiers(parameter.maybePublic())
+        .returns(parameter.generatedClass);
+  }
+
+  /**
+   * Creates the buffer, if there is none yet.
+   * It starts out with a copy of the current value of the property.
+   */
+  private CodeBlock initBlock(Model model) {
+    FieldSpec builderField = asBuilderField();
+    FieldSpec field = parameter.asField();
+    OptionalInt capacity = model.capacity(parameter);
+    return CodeBlock.builder()
+        .beginControlFlow("if (this.$N == null)", builderField)
+        .addStatement("this.$N = $T.of(this.$N, $L)",
+            builderField, model.primitiveListClass(kind), field,
+            capacity.orElse(PrimitiveList.DEFAULT_CAPACITY))
+        .addStatement("this.$N = null", field)
+        .endControlFlow()
+        .build();
+  }
+
+  @Override
+  <R, P> R accept(ParamCases<R, P> cases, P p) {
+    return cases.arrayish(this, p);
+  }
+}
@@ -39,13 +39,22 @@ public final class AutoBuilderProcessor extends AbstractProcessor {
 
   private final boolean debug;
 
+  // where the collection plugins are found
+  private final ClassLoader pluginLoader;
+
   public AutoBuilderProcessor() {
     this(false);
   }
 
   // visible for testing
   AutoBuilderProcessor(boolean debug) {
+    this(debug, CollectionPlugin.class.getClassLoader());
+  }
+
+  // visible for testing
+  AutoBuilderProcessor(boolean debug, ClassLoader pluginLoader) {
     this.debug = debug;
+    this.pluginLoader = pluginLoader;
   }
 
   private static final class Task {
@@ -106,9 +115,11 @@ public final class AutoBuilderProcessor extends AbstractProcessor {
     }
     try {
       TypeTool.init(processingEnv.getTypeUtils(), processingEnv.getElementUtils());
+      Plugins.init(pluginLoader, processingEnv.getMessager());
       doProcess(env);
     } finally {
       TypeTool.clear();
+      Plugins.clear();
     }
     return false;
   }
@@ -155,9 +166,15 @@ public final class AutoBuilderProcessor extends AbstractProcessor {
           Model.getAvConstructor(sourceElement, avElement),
           avElement);
       Model model = Model.create(parameters, sourceElement, avElement);
+      if (processingEnv.getElementUtils().getTypeElement(model.lensesClass().toString()) != null) {
+        throw new ValidationException(String.format(
+            "Cannot generate %s, because a type with this name already exists.",
+            model.lensesClass()), sourceElement);
+      }
 
       TypeSpec typeSpec = Builder.create(model).define();
       write(rawType(model.generatedClass), typeSpec);
+      write(model.lensesClass(), Lenses.create(model).define());
       done.add(task.avType);
     } catch (ValidationException e) {
       processingEnv.getMessager().printMessage(e.kind, e.getMessage(), e.about);
@@ -0,0 +1,266 @@
+package net.autobuilder.core;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PROTECTED;
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * <p>Generates the {@code transformAll} methods, which apply the same change
+ * to many objects. The objects are loaded into a single builder, one after another,
+ * and the results are written to an array of the right size.</p>
+ *
+ * <p>The parallel variant splits the input with a {@code RecursiveAction},
+ * which has one builder per leaf task.</p>
+ */
+final class BatchTransform {
+
+  // the size of the leaf tasks of the parallel transform
+  private static final int SPLIT_THRESHOLD = 4096;
+
+  private final Model model;
+  private final MethodSpec initMethod;
+  private final MethodSpec buildAndResetMethod;
+  private final ParameterSpec transform;
+  private final String transformAllName;
+  private final String parallelTransformAllName;
+  private final ClassName taskClass;
+  private final MethodSpec transformRangeMethod;
+
+  private BatchTransform(
+      Model model,
+      MethodSpec initMethod,
+      MethodSpec buildAndResetMethod) {
+    this.model = model;
+    this.initMethod = initMethod;
+    this.buildAndResetMethod = buildAndResetMethod;
+    this.transform = ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Consumer.class),
+        WildcardTypeName.supertypeOf(model.generatedClass)), "transform").build();
+    this.transformAllName = model.uniqueMethodName("transformAll");
+    this.parallelTransformAllName = model.uniqueMethodName("parallelTransformAll");
+    this.taskClass = model.transformTaskClass();
+    this.transformRangeMethod = transformRangeMethod();
+  }
+
+  static BatchTransform create(
+      Model model,
+      MethodSpec initMethod,
+      MethodSpec buildAndResetMethod) {
+    return new BatchTransform(model, initMethod, buildAndResetMethod);
+  }
+
+  private TypeName sourceType() {
+    return TypeName.get(model.sourceElement().asType());
+  }
+
+  private ArrayTypeName arrayType() {
+    return ArrayTypeName.of(sourceType());
+  }
+
+  List<MethodSpec> methods() {
+    return Arrays.asList(
+        transformListMethod(),
+        transformArrayMethod(),
+        transformSpliteratorMethod(),
+        parallelTransformListMethod(),
+        parallelTransformArrayMethod(),
+        transformRangeMethod);
+  }
+
+  private MethodSpec transformListMethod() {
+    ParameterSpec input = ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(List.class),
+        WildcardTypeName.subtypeOf(sourceType())), "input").build();
+    CodeBlock code = CodeBlock.builder()
+        .addStatement("$T result = new $T[$N.size()]", arrayType(), sourceType(), input)
+        .addStatement("$T builder = new $T()", model.generatedClass, model.generatedClass)
+        .addStatement("int i = 0")
+        .beginControlFlow("for ($T item : $N)", sourceType(), input)
+        .add(transformItem(CodeBlock.of("item"), result -> CodeBlock.of("result[i++] = $L", result)))
+        .endControlFlow()
+        .addStatement("return $T.asList(result)", Arrays.class)
+        .build();
+    return method(transformAllName)
+        .addJavadoc("Applies {@code $N} to a builder that is loaded with each of the {@code $N},\n" +
+            "and returns the results in a fixed-size list.\n" +
+            "The builder is reused; {@code $N} must not keep it, or call {@code build()}.\n",
+            transform, input, transform)
+        .addCode(code)
+        .addParameter(input)
+        .addParameter(transform)
+        .returns(ParameterizedTypeName.get(ClassName.get(List.class), sourceType()))
+        .build();
+  }
+
+  private MethodSpec transformArrayMethod() {
+    ParameterSpec input = ParameterSpec.builder(arrayType(), "input").build();
+    return method(transformAllName)
+        .addJavadoc("Like {@code $N(List, Consumer)}, for an array.\n", transformAllName)
+        .addStatement("$T result = new $T[$N.length]", arrayType(), sourceType(), input)
+        .addStatement("$N($N, result, 0, $N.length, $N)",
+            transformRangeMethod, input, input, transform)
+        .addStatement("return result")
+        .addParameter(input)
+        .addParameter(transform)
+        .returns(arrayType())
+        .build();
+  }
+
+  private MethodSpec transformSpliteratorMethod() {
+    ParameterSpec input = ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Spliterator.class),
+        WildcardTypeName.subtypeOf(sourceType())), "input").build();
+    TypeName listType = ParameterizedTypeName.get(ClassName.get(List.class), sourceType());
+    CodeBlock code = CodeBlock.builder()
+        .addStatement("long size = $N.getExactSizeIfKnown()", input)
+        .addStatement("$T result = new $T<>(size >= 0 && size <= $T.MAX_VALUE ? (int) size : 10)",
+            listType, ArrayList.class, Integer.class)
+        .addStatement("$T builder = new $T()", model.generatedClass, model.generatedClass)
+        .add("$N.forEachRemaining(item -> {\n", input).indent()
+        .add(transformItem(CodeBlock.of("item"), result -> CodeBlock.of("result.add($L)", result)))
+        .unindent().add("});\n")
+        .addStatement("return result")
+        .build();
+    return method(transformAllName)
+        .addJavadoc("Like {@code $N(List, Consumer)}, for the remaining elements of a spliterator.\n",
+            transformAllName)
+        .addCode(code)
+        .addParameter(input)
+        .addParameter(transform)
+        .returns(listType)
+        .build();
+  }
+
+  private MethodSpec parallelTransformListMethod() {
+    ParameterSpec input = ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(List.class),
+        WildcardTypeName.subtypeOf(sourceType())), "input").build();
+    return method(parallelTransformAllName)
+        .addJavadoc("Like {@code $N(List, Consumer)}, but large inputs are split\n" +
+            "and transformed in the common fork-join pool.\n" +
+            "{@code $N} must be safe to call from several threads.\n", transformAllName, transform)
+        .addStatement("$T array = $N.toArray(new $T[0])", arrayType(), input, sourceType())
+        .addStatement("return $T.asList($N(array, $N))", Arrays.class, parallelTransformAllName, transform)
+        .addParameter(input)
+        .addParameter(transform)
+        .returns(ParameterizedTypeName.get(ClassName.get(List.class), sourceType()))
+        .build();
+  }
+
+  private MethodSpec parallelTransformArrayMethod() {
+    ParameterSpec input = ParameterSpec.builder(arrayType(), "input").build();
+    return method(parallelTransformAllName)
+        .addJavadoc("Like {@code $N(List, Consumer)}, for an array.\n", parallelTransformAllName)
+        .addStatement("$T result = new $T[$N.length]", arrayType(), sourceType(), input)
+        .addStatement("new $T($N, result, 0, $N.length, $N).invoke()", taskClass, input, input, transform)
+        .addStatement("return result")
+        .addParameter(input)
+        .addParameter(transform)
+        .returns(arrayType())
+        .build();
+  }
+
+  private MethodSpec transformRangeMethod() {
+    ParameterSpec input = ParameterSpec.builder(arrayType(), "input").build();
+    ParameterSpec output = ParameterSpec.builder(arrayType(), "output").build();
+    ParameterSpec from = ParameterSpec.builder(TypeName.INT, "from").build();
+    ParameterSpec to = ParameterSpec.builder(TypeName.INT, "to").build();
+    CodeBlock code = CodeBlock.builder()
+        .addStatement("$T builder = new $T()", model.generatedClass, model.generatedClass)
+        .beginControlFlow("for (int i = $N; i < $N; i++)", from, to)
+        .add(transformItem(CodeBlock.of("$N[i]", input), result -> CodeBlock.of("$N[i] = $L", output, result)))
+        .endControlFlow()
+        .build();
+    return MethodSpec.methodBuilder(model.uniqueMethodName("transformRange"))
+        .addCode(code)
+        .addParameter(input)
+        .addParameter(output)
+        .addParameter(from)
+        .addParameter(to)
+        .addParameter(transform)
+        .addModifiers(PRIVATE, STATIC)
+        .build();
+  }
+
+  // loads the builder, applies the transform, and stores the result
+  private CodeBlock transformItem(CodeBlock item, Function<CodeBlock, CodeBlock> store) {
+    return CodeBlock.builder()
+        .addStatement("builder.$N($L)", initMethod, item)
+        .addStatement("$N.accept(builder)", transform)
+        .addStatement("$L", store.apply(CodeBlock.of("builder.$N()", buildAndResetMethod)))
+        .build();
+  }
+
+  private MethodSpec.Builder method(String name) {
+    return MethodSpec.methodBuilder(name)
+        .addModifiers(STATIC)
+        .addModifiers(model.maybePublic());
+  }
+
+  /**
+   * Defines the fork-join task of the parallel transform.
+   */
+  TypeSpec define() {
+    FieldSpec input = FieldSpec.builder(arrayType(), "input", PRIVATE, FINAL).build();
+    FieldSpec output = FieldSpec.builder(arrayType(), "output", PRIVATE, FINAL).build();
+    FieldSpec from = FieldSpec.builder(TypeName.INT, "from", PRIVATE, FINAL).build();
+    FieldSpec to = FieldSpec.builder(TypeName.INT, "to", PRIVATE, FINAL).build();
+    FieldSpec transformField = FieldSpec.builder(transform.type, transform.name, PRIVATE, FINAL).build();
+    MethodSpec constructor = MethodSpec.constructorBuilder()
+        .addParameter(input.type, input.name)
+        .addParameter(output.type, output.name)
+        .addParameter(from.type, from.name)
+        .addParameter(to.type, to.name)
+        .addParameter(transform)
+        .addStatement("this.$N = $N", input, input)
+        .addStatement("this.$N = $N", output, output)
+        .addStatement("this.$N = $N", from, from)
+        .addStatement("this.$N = $N", to, to)
+        .addStatement("this.$N = $N", transformField, transform)
+        .build();
+    MethodSpec compute = MethodSpec.methodBuilder("compute")
+        .addAnnotation(Override.class)
+        .beginControlFlow("if ($N - $N <= $L)", to, from, SPLIT_THRESHOLD)
+        .addStatement("$N($N, $N, $N, $N, $N)", transformRangeMethod, input, output, from, to, transformField)
+        .addStatement("return")
+        .endControlFlow()
+        .addStatement("int middle = ($N + $N) >>> 1", from, to)
+        .addStatement("invokeAll(new $T($N, $N, $N, middle, $N),\n" +
+                "new $T($N, $N, middle, $N, $N))",
+            taskClass, input, output, from, transformField,
+            taskClass, input, output, to, transformField)
+        .addModifiers(PROTECTED)
+        .build();
+    // RecursiveAction is Serializable
+    FieldSpec serialVersionUID = FieldSpec.builder(TypeName.LONG, "serialVersionUID",
+        PRIVATE, STATIC, FINAL).initializer("1L").build();
+    return TypeSpec.classBuilder(taskClass)
+        .superclass(RecursiveAction.class)
+        .addField(serialVersionUID)
+        .addField(input)
+        .addField(output)
+        .addField(from)
+        .addField(to)
+        .addField(transformField)
+        .addMethod(constructor)
+        .addMethod(compute)
+        .addModifiers(PRIVATE, STATIC, FINAL)
+        .build();
+  }
+}
@@ -0,0 +1,59 @@
+package net.autobuilder.core;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+
+/**
+ * Guava's {@code ImmutableBiMap}.
+ * This is registered as a {@link CollectionPlugin} service,
+ * like a plugin on the processor path would be.
+ */
+public final class BiMapPlugin extends CollectionPlugin {
+
+  private static final ClassName BI_MAP = ClassName.get("com.google.common.collect", "ImmutableBiMap");
+
+  @Override
+  public String collectionClassName() {
+    return "com.google.common.collect.ImmutableBiMap";
+  }
+
+  @Override
+  public String accumulatorClassName() {
+    return "com.google.common.collect.ImmutableBiMap.Builder";
+  }
+
+  @Override
+  public boolean keyed() {
+    return true;
+  }
+
+  @Override
+  public String setterParameterClassName() {
+    return "java.util.Map";
+  }
+
+  @Override
+  public CodeBlock accumulatorInitBlock() {
+    return CodeBlock.of("$T.builder()", BI_MAP);
+  }
+
+  @Override
+  public CodeBlock sizedAccumulatorInitBlock(CodeBlock expectedSize) {
+    return CodeBlock.of("$T.builderWithExpectedSize($L)", BI_MAP, expectedSize);
+  }
+
+  @Override
+  public CodeBlock buildBlock(CodeBlock accumulator) {
+    return CodeBlock.of("$L.build()", accumulator);
+  }
+
+  @Override
+  public CodeBlock emptyBlock() {
+    return CodeBlock.of("$T.of()", BI_MAP);
+  }
+
+  @Override
+  public CodeBlock setterAssignmentBlock(CodeBlock value) {
+    return CodeBlock.of("$L != null ? $T.copyOf($L) : null", value, BI_MAP, value);
+  }
+}
@@ -9,14 +9,22 @@ import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 
+import javax.lang.model.type.TypeMirror;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.STATIC;
 import static net.autobuilder.core.AutoBuilderProcessor.rawType;
 import static net.autobuilder.core.Util.joinCodeBlocks;
+import static net.autobuilder.core.Util.upcase;
 
 /**
  * Generates the *_Builder class.
@@ -29,12 +37,47 @@ final class Builder {
 
   private final FieldSpec inUse;
 
+  // one bit per parameter, if dirtyTracking is enabled
+  private final List<FieldSpec> dirty;
+
+  // the input of toBuilder, if lazyToBuilder or returnSourceIfUnchanged is enabled
+  private final Optional<FieldSpec> source;
+
+  private final MethodSpec resetMethod;
+
+  private final MethodSpec buildAndResetMethod;
+
   private Builder(Model model) {
     this.model = model;
-    this.initMethod = initMethod(model, model.parameters);
+    this.dirty = dirtyFields(model);
+    this.source = sourceField(model);
+    this.initMethod = initMethod(model, model.parameters, dirty, source);
     String inUseFieldName = model.uniqueFieldName("inUse");
     this.inUse = FieldSpec.builder(TypeName.BOOLEAN, inUseFieldName)
         .addModifiers(PRIVATE).build();
+    this.resetMethod = resetMethod();
+    this.buildAndResetMethod = buildAndResetMethod();
+  }
+
+  private static List<FieldSpec> dirtyFields(Model model) {
+    if (!model.dirtyTracking) {
+      return Collections.emptyList();
+    }
+    List<FieldSpec> result = new ArrayList<>();
+    for (int i = 0; i < model.parameters.size(); i += Long.SIZE) {
+      result.add(FieldSpec.builder(TypeName.LONG, model.uniqueFieldName("dirty" + result.size()))
+          .addModifiers(PRIVATE).build());
+    }
+    return result;
+  }
+
+  private static Optional<FieldSpec> sourceField(Model model) {
+    if (!model.lazyToBuilder && !model.returnSourceIfUnchanged) {
+      return Optional.empty();
+    }
+    return Optional.of(FieldSpec.builder(TypeName.get(model.sourceElement().asType()),
+        model.uniqueFieldName("source"))
+        .addModifiers(PRIVATE).build());
   }
 
   static Builder create(Model model) {
@@ -44,28 +87,96 @@ final class Builder {
   TypeSpec define() {
     TypeSpec.Builder spec = TypeSpec.classBuilder(rawType(model.generatedClass));
     spec.addMethod(initMethod);
-    spec.addMethod(buildMethod(model, inUse, model.parameters));
     MethodSpec toBuilderMethod;
-    if (model.reuse) {
-      FieldSpec factoryField = createFactoryField();
-      spec.addField(factoryField);
-      spec.addField(inUse);
-      spec.addType(PerThreadFactory.create(
-          model, initMethod, inUse).define());
-      spec.addMethod(staticBuilderMethodReuse(factoryField));
-      toBuilderMethod = staticToBuilderMethodReuse(factoryField, model.uniqueSetterMethodName("toBuilder", model.sourceElement().asType()));
-    } else {
-      spec.addMethod(staticBuilderMethod());
-      toBuilderMethod = staticToBuilderMethod(model.uniqueSetterMethodName("toBuilder", model.sourceElement().asType()));
+    // gives back the builder of a failed scoped update
+    CodeBlock discard;
+    switch (model.reuse) {
+      case THREAD_LOCAL: {
+        FieldSpec factoryField = createFactoryField();
+        spec.addField(factoryField);
+        spec.addField(inUse);
+        FieldSpec evicted = FieldSpec.builder(TypeName.BOOLEAN, model.uniqueFieldName("evicted"))
+            .addModifiers(PRIVATE).build();
+        spec.addField(evicted);
+        PerThreadFactory perThreadFactory = PerThreadFactory.create(model, initMethod, inUse, evicted);
+        spec.addType(perThreadFactory.define());
+        spec.addMethod(perThreadFactory.abandonedMethod());
+        spec.addMethod(perThreadFactory.overflowMethod());
+        spec.addMethod(buildMethodReuse(CodeBlock.builder()
+            .addStatement("$N = $L", inUse, false)
+            .add(perThreadFactory.releaseBlock(CodeBlock.of("this")))
+            .build()));
+        spec.addMethod(staticBuilderMethodReuse(factoryField));
+        toBuilderMethod = staticToBuilderMethodReuse(factoryField, model.uniqueSetterMethodName("toBuilder", model.sourceElement().asType()));
+        discard = CodeBlock.builder()
+            .addStatement("builder.$N()", resetMethod)
+            .addStatement("builder.$N = $L", inUse, false)
+            .add(perThreadFactory.releaseBlock(CodeBlock.of("builder")))
+            .build();
+        break;
+      }
+      case POOL: {
+        FieldSpec factoryField = createStripedFactoryField();
+        spec.addField(factoryField);
+        spec.addField(inUse);
+        spec.addType(StripedFactory.create(model, initMethod, inUse).define());
+        spec.addMethod(buildMethodReuse(CodeBlock.of("$N.release(this);\n", factoryField)));
+        spec.addMethod(staticBuilderMethodShared(factoryField));
+        toBuilderMethod = staticToBuilderMethodShared(factoryField, model.uniqueSetterMethodName("toBuilder", model.sourceElement().asType()));
+        discard = CodeBlock.of("$N.release(builder.$N());\n", factoryField, resetMethod);
+        break;
+      }
+      default: {
+        spec.addMethod(buildMethod());
+        spec.addMethod(staticBuilderMethod());
+        toBuilderMethod = staticToBuilderMethod(model.uniqueSetterMethodName("toBuilder", model.sourceElement().asType()));
+        discard = CodeBlock.of("");
+      }
     }
+    if (model.persistentLists) {
+      spec.addType(PersistentList.create(model).define());
+    }
+    model.parameters.stream()
+        .map(Parameter::unboxedKind)
+        .filter(Optional::isPresent)
+        .map(Optional::get)
+        .distinct()
+        .sorted()
+        .forEach(kind -> spec.addType(PrimitiveList.create(model, kind).define()));
     spec.addMethod(toBuilderMethod);
     spec.addMethod(toBuilderAlias(toBuilderMethod.name));
-    for (Parameter parameter : model.parameters) {
+    if (model.resettable) {
+      spec.addMethod(buildAndResetMethod);
+      spec.addMethod(resetMethod);
+      spec.addMethod(resetMethodWithParam());
+    }
+    source.ifPresent(spec::addField);
+    dirty.forEach(spec::addField);
+    for (int i = 0; i < model.parameters.size(); i++) {
+      Parameter parameter = model.parameters.get(i);
+      CodeBlock markDirty = markDirty(i);
+      // the accumulator methods need the current value
+      CodeBlock beforeAccumulate = parameter.extraField().isPresent() ?
+          loadFromSource(i).toBuilder().add(markDirty).build() :
+          markDirty;
       spec.addField(parameter.asRegularParameter().asField());
-      spec.addMethod(setterMethod(parameter));
+      parameter.additionalFields(model).forEach(spec::addField);
+      spec.addMethod(setterMethod(parameter, markDirty));
       parameter.extraField().ifPresent(spec::addField);
-      parameter.getExtraMethods(model).forEach(spec::addMethod);
+      parameter.getExtraMethods(model).stream()
+          .map(method -> prependCode(method, beforeAccumulate))
+          .forEach(spec::addMethod);
+    }
+    Set<String> witherNames = new HashSet<>();
+    for (int i = 0; i < model.parameters.size(); i++) {
+      spec.addMethod(witherMethod(i, witherNames));
     }
+    if (model.transformAll) {
+      BatchTransform batchTransform = BatchTransform.create(model, initMethod, buildAndResetMethod);
+      batchTransform.methods().forEach(spec::addMethod);
+      spec.addType(batchTransform.define());
+    }
+    ScopedUpdate.create(model, toBuilderMethod.name, inUse, discard).methods().forEach(spec::addMethod);
     return spec.addModifiers(FINAL)
         .addModifiers(model.maybePublic())
         .addMethod(MethodSpec.constructorBuilder().addModifiers(PRIVATE).build())
@@ -82,16 +193,37 @@ final class Builder {
         .initializer("$T.withInitial($T::new)", ThreadLocal.class, perThreadFactoryClass).build();
   }
 
+  private FieldSpec createStripedFactoryField() {
+    ClassName stripedFactoryClass = model.stripedFactoryClass();
+    String factoryFieldName = model.uniqueFieldName("FACTORY");
+    return FieldSpec.builder(stripedFactoryClass, factoryFieldName)
+        .addModifiers(PRIVATE, STATIC, FINAL)
+        .initializer("new $T()", stripedFactoryClass).build();
+  }
+
 
   private static MethodSpec initMethod(
-      Model model, List<Parameter> parameters) {
+      Model model, List<Parameter> parameters, List<FieldSpec> dirty, Optional<FieldSpec> source) {
     ParameterSpec input = ParameterSpec.builder(TypeName.get(model.sourceElement().asType()), "input").build();
     CodeBlock.Builder block = CodeBlock.builder();
+    source.ifPresent(field -> block.addStatement("this.$N = $N", field, input));
+    if (model.lazyToBuilder) {
+      // the properties are read in build(), unless they are changed
+      return MethodSpec.methodBuilder(model.uniqueSetterMethodName("init", model.sourceElement().asType()))
+          .addCode(block.build())
+          .addParameter(input)
+          .addModifiers(PRIVATE)
+          .build();
+    }
     for (Parameter parameter : parameters) {
       block.addStatement("this.$N = $N.$L()",
           parameter.asRegularParameter().setterName, input,
           parameter.asRegularParameter().getterName);
     }
+    for (int i = 0; i < dirty.size(); i++) {
+      int bits = Math.min(Long.SIZE, parameters.size() - i * Long.SIZE);
+      block.addStatement("this.$N = $L", dirty.get(i), fullMask(bits));
+    }
     return MethodSpec.methodBuilder(model.uniqueSetterMethodName("init", model.sourceElement().asType()))
         .addCode(block.build())
         .addParameter(input)
@@ -99,10 +231,11 @@ final class Builder {
         .build();
   }
 
-  private MethodSpec setterMethod(Parameter parameter) {
+  private MethodSpec setterMethod(Parameter parameter, CodeBlock markDirty) {
     ParameterSpec p = parameter.asSetterParameter();
     CodeBlock.Builder block = CodeBlock.builder();
-    block.add(parameter.codeInsideSetter());
+    block.add(markDirty);
+    block.add(parameter.codeInsideSetter(model));
     block.addStatement("return this");
     return MethodSpec.methodBuilder(
         parameter.asRegularParameter().setterName)
@@ -161,6 +294,27 @@ final class Builder {
         .build();
   }
 
+  private MethodSpec staticBuilderMethodShared(FieldSpec factoryField) {
+    return MethodSpec.methodBuilder("builder")
+        .addModifiers(STATIC)
+        .addModifiers(model.maybePublic())
+        .addStatement("return $N.builder()", factoryField)
+        .returns(model.generatedClass)
+        .build();
+  }
+
+  private MethodSpec staticToBuilderMethodShared(
+      FieldSpec factoryField, String methodName) {
+    ParameterSpec param = ParameterSpec.builder(TypeName.get(model.sourceElement().asType()), "input").build();
+    return MethodSpec.methodBuilder(methodName)
+        .addModifiers(STATIC)
+        .addModifiers(model.maybePublic())
+        .addStatement("return $N.builder($N)", factoryField, param)
+        .addParameter(param)
+        .returns(model.generatedClass)
+        .build();
+  }
+
   private MethodSpec toBuilderAlias(String toBuilderMethodName) {
     ParameterSpec param = ParameterSpec.builder(TypeName.get(model.sourceElement().asType()), "input").build();
     return MethodSpec.methodBuilder(model.uniqueSetterMethodName("builder", model.sourceElement().asType()))
@@ -172,33 +326,286 @@ final class Builder {
         .build();
   }
 
-  private static MethodSpec buildMethod(
-      Model model,
-      FieldSpec inUse,
-      List<Parameter> parameters) {
+  private MethodSpec buildMethod() {
+    MethodSpec.Builder spec = MethodSpec.methodBuilder("build");
+    if (model.returnSourceIfUnchanged) {
+      spec.beginControlFlow("if ($N != null && $L)", source.get(), unchanged())
+          .addStatement("return $N", source.get())
+          .endControlFlow();
+    }
+    return spec.addCode("return ")
+        .addCode(constructorInvocation())
+        .returns(TypeName.get(model.sourceElement().asType()))
+        .addModifiers(model.maybePublic())
+        .build();
+  }
+
+  private MethodSpec buildMethodReuse(CodeBlock release) {
     ParameterSpec result = ParameterSpec.builder(TypeName.get(model.sourceElement().asType()), "result")
         .build();
-    List<CodeBlock> invocation = parameters.stream()
-        .map(Parameter::extract)
-        .collect(Collectors.toList());
-    MethodSpec.Builder spec = MethodSpec.methodBuilder("build");
-    spec.addCode("$T $N = new $T(\n", TypeName.get(model.sourceElement().asType()), result, model.avElement)
-        .addCode(invocation.stream().collect(joinCodeBlocks(",\n")))
-        .addCode(");\n");
-    if (model.reuse) {
-      parameters.stream().map(Parameter::cleanupCode).forEach(spec::addCode);
-      spec.addStatement("$N = $L", inUse, false);
-    }
-    return spec.addStatement("return $N", result)
+    return MethodSpec.methodBuilder("build")
+        .addStatement("$T $N = $N()", result.type, result, buildAndResetMethod)
+        .addCode(release)
+        .addStatement("return $N", result)
+        .returns(TypeName.get(model.sourceElement().asType()))
+        .addModifiers(model.maybePublic())
+        .build();
+  }
+
+  private MethodSpec buildAndResetMethod() {
+    ParameterSpec result = ParameterSpec.builder(TypeName.get(model.sourceElement().asType()), "result")
+        .build();
+    MethodSpec.Builder spec = MethodSpec.methodBuilder("buildAndReset")
+        .addJavadoc("Builds the result, and resets this builder,\n" +
+            "so that the caller can use it again.\n" +
+            "Unlike {@code build()}, this does not give the builder back for reuse.\n" +
+            "If the builder came from the cache, it stays in use\n" +
+            "until the caller calls {@code build()}.\n");
+    if (model.returnSourceIfUnchanged) {
+      spec.beginControlFlow("if ($N != null && $L)", source.get(), unchanged())
+          .addStatement("$T $N = $N", result.type, result, source.get())
+          .addStatement("$N()", resetMethod)
+          .addStatement("return $N", result)
+          .endControlFlow();
+    }
+    return spec.addCode("$T $N = ", result.type, result)
+        .addCode(constructorInvocation())
+        .addStatement("$N()", resetMethod)
+        .addStatement("return $N", result)
         .returns(TypeName.get(model.sourceElement().asType()))
         .addModifiers(model.maybePublic())
         .build();
   }
 
-  private CodeBlock generatedInfo() {
+  private CodeBlock constructorInvocation() {
+    List<CodeBlock> invocation = new ArrayList<>(model.parameters.size());
+    for (int i = 0; i < model.parameters.size(); i++) {
+      Parameter parameter = model.parameters.get(i);
+      CodeBlock extract = parameter.extract(model);
+      if (model.lazyToBuilder) {
+        extract = CodeBlock.of("$N != null && $L ? $N.$L() : $L",
+            source.get(), isClean(i), source.get(),
+            parameter.asRegularParameter().getterName, extract);
+      }
+      invocation.add(extract);
+    }
+    return CodeBlock.builder()
+        .add("new $T(\n", model.avElement)
+        .add(invocation.stream().collect(joinCodeBlocks(",\n")))
+        .add(");\n")
+        .build();
+  }
+
+  /**
+   * A static method that changes one property,
+   * without going through a builder.
+   *
+   * @param witherNames the names of the previous withers,
+   * the name of this wither is added
+   */
+  private MethodSpec witherMethod(int parameterIndex, Set<String> witherNames) {
+    RegularParameter changed = model.parameters.get(parameterIndex).asRegularParameter();
+    String witherName = "with" + upcase(changed.setterName);
+    // properties x and X, or x and withX
+    while (witherNames.contains(witherName) || isSetterName(witherName)) {
+      witherName = "_" + witherName;
+    }
+    witherNames.add(witherName);
+    ParameterSpec input = ParameterSpec.builder(TypeName.get(model.sourceElement().asType()), "input").build();
+    ParameterSpec value = ParameterSpec.builder(TypeName.get(changed.type()), "value").build();
+    CodeBlock.Builder block = CodeBlock.builder()
+        .beginControlFlow("if ($L)", sameValue(changed,
+            CodeBlock.of("$N.$L()", input, changed.getterName), CodeBlock.of("$N", value)))
+        .addStatement("return $N", input)
+        .endControlFlow();
+    List<CodeBlock> invocation = new ArrayList<>(model.parameters.size());
+    for (int i = 0; i < model.parameters.size(); i++) {
+      Parameter parameter = model.parameters.get(i);
+      invocation.add(i == parameterIndex ?
+          parameter.witherValueBlock(value) :
+          CodeBlock.of("$N.$L()", input, parameter.asRegularParameter().getterName));
+    }
+    block.add("return new $T(\n", model.avElement)
+        .add(invocation.stream().collect(joinCodeBlocks(",\n")))
+        .add(");\n");
+    return MethodSpec.methodBuilder(witherName)
+        .addJavadoc("Returns a copy of {@code $N} where only {@code $L} is changed,\n" +
+            "or {@code $N} itself if the value is the same.\n", input, changed.getterName, input)
+        .addCode(block.build())
+        .addParameter(input)
+        .addParameter(value)
+        .addModifiers(STATIC)
+        .addModifiers(model.maybePublic())
+        .returns(TypeName.get(model.sourceElement().asType()))
+        .build();
+  }
+
+  private boolean isSetterName(String name) {
+    return model.parameters.stream()
+        .anyMatch(parameter -> parameter.asRegularParameter().setterName.equals(name));
+  }
+
+  private MethodSpec resetMethod() {
+    return MethodSpec.methodBuilder("reset")
+        .addJavadoc("Sets all properties of this builder back to their initial values.\n")
+        .addCode(cleanupCode())
+        .addStatement("return this")
+        .returns(model.generatedClass)
+        .addModifiers(model.maybePublic())
+        .build();
+  }
+
+  private MethodSpec resetMethodWithParam() {
+    ParameterSpec input = ParameterSpec.builder(TypeName.get(model.sourceElement().asType()), "input").build();
+    return MethodSpec.methodBuilder(model.uniqueSetterMethodName("reset", model.sourceElement().asType()))
+        .addJavadoc("Resets this builder, and then copies all properties of {@code input}.\n")
+        .addStatement("$N()", resetMethod)
+        .addStatement("$N($N)", initMethod, input)
+        .addStatement("return this")
+        .addParameter(input)
+        .returns(model.generatedClass)
+        .addModifiers(model.maybePublic())
+        .build();
+  }
+
+  /**
+   * A condition that is true if none of the properties
+   * differs from the corresponding property of the source.
+   */
+  private CodeBlock unchanged() {
+    List<CodeBlock> conditions = new ArrayList<>(model.parameters.size());
+    for (int i = 0; i < model.parameters.size(); i++) {
+      Parameter parameter = model.parameters.get(i);
+      CodeBlock.Builder same = CodeBlock.builder();
+      // a used accumulator is a change, and it is not evaluated
+      parameter.accumulatorUnused(model).ifPresent(unused ->
+          same.add("$L && ", unused));
+      same.add(parameter.sameValueBlock(model,
+          CodeBlock.of("$N.$L()", source.get(), parameter.asRegularParameter().getterName)));
+      conditions.add(model.lazyToBuilder ?
+          CodeBlock.of("($L || $L)", isClean(i), same.build()) :
+          same.build());
+    }
+    if (conditions.isEmpty()) {
+      return CodeBlock.of("true");
+    }
+    return conditions.stream().collect(joinCodeBlocks("\n    && "));
+  }
+
+  private CodeBlock sameValue(RegularParameter parameter, CodeBlock left, CodeBlock right) {
+    return sameValue(parameter, left, right, model.compareWithEquals);
+  }
+
+  static CodeBlock sameValue(RegularParameter parameter, CodeBlock left, CodeBlock right,
+                             boolean compareWithEquals) {
+    return sameValue(parameter.type(), left, right, compareWithEquals);
+  }
+
+  static CodeBlock sameValue(TypeMirror type, CodeBlock left, CodeBlock right,
+                             boolean compareWithEquals) {
+    switch (type.getKind()) {
+      case DOUBLE:
+        // distinguish 0.0 and -0.0
+        return CodeBlock.of("$T.doubleToLongBits($L) == $T.doubleToLongBits($L)",
+            Double.class, left, Double.class, right);
+      case FLOAT:
+        return CodeBlock.of("$T.floatToIntBits($L) == $T.floatToIntBits($L)",
+            Float.class, left, Float.class, right);
+      default:
+        if (type.getKind().isPrimitive() || !compareWithEquals) {
+          return CodeBlock.of("$L == ($L)", left, right);
+        }
+        return CodeBlock.of("$T.equals($L, $L)", Objects.class, left, right);
+    }
+  }
+
+  private CodeBlock cleanupCode() {
+    CodeBlock.Builder code = CodeBlock.builder();
+    source.ifPresent(field -> code.addStatement("$N = null", field));
+    if (!model.dirtyTracking) {
+      return code.add(model.parameters.stream()
+          .map(parameter -> parameter.cleanupCode(model))
+          .collect(joinCodeBlocks("")))
+          .build();
+    }
+    String mask = model.uniqueFieldName("mask");
+    for (int i = 0; i < dirty.size(); i++) {
+      FieldSpec field = dirty.get(i);
+      List<Parameter> parameters = model.parameters.subList(
+          i * Long.SIZE, Math.min(model.parameters.size(), (i + 1) * Long.SIZE));
+      // after init, all bits are set, and it is cheaper to clear everything
+      code.beginControlFlow("if ($N == $L)", field, fullMask(parameters.size()));
+      parameters.stream().map(parameter -> parameter.cleanupCode(model)).forEach(code::add);
+      code.nextControlFlow("else");
+      // visit only the bits that are set
+      code.beginControlFlow("for (long $L = $N; $L != 0; $L &= $L - 1)", mask, field, mask, mask, mask)
+          .beginControlFlow("switch ($T.numberOfTrailingZeros($L))", Long.class, mask);
+      for (int bit = 0; bit < parameters.size(); bit++) {
+        code.add("case $L:\n", bit).indent()
+            .add(parameters.get(bit).cleanupCode(model))
+            .addStatement("break")
+            .unindent();
+      }
+      code.endControlFlow()
+          .endControlFlow()
+          .endControlFlow()
+          .addStatement("$N = 0", field);
+    }
+    return code.build();
+  }
+
+  private static String fullMask(int bits) {
+    long mask = bits == Long.SIZE ? -1L : (1L << bits) - 1;
+    return "0x" + Long.toHexString(mask) + "L";
+  }
+
+  private CodeBlock markDirty(int parameterIndex) {
+    if (!model.dirtyTracking) {
+      return CodeBlock.of("");
+    }
+    return CodeBlock.of("$N |= 1L << $L;\n",
+        dirty.get(parameterIndex / Long.SIZE), parameterIndex % Long.SIZE);
+  }
+
+  private CodeBlock isClean(int parameterIndex) {
+    return CodeBlock.of("($N & 1L << $L) == 0",
+        dirty.get(parameterIndex / Long.SIZE), parameterIndex % Long.SIZE);
+  }
+
+  private CodeBlock loadFromSource(int parameterIndex) {
+    if (!model.lazyToBuilder) {
+      return CodeBlock.of("");
+    }
+    RegularParameter parameter = model.parameters.get(parameterIndex).asRegularParameter();
+    return CodeBlock.builder()
+        .beginControlFlow("if ($N != null && $L)", source.get(), isClean(parameterIndex))
+        .addStatement("this.$N = $N.$L()", parameter.asField(), source.get(), parameter.getterName)
+        .endControlFlow()
+        .build();
+  }
+
+  private static MethodSpec prependCode(MethodSpec method, CodeBlock code) {
+    if (code.isEmpty()) {
+      return method;
+    }
+    return MethodSpec.methodBuilder(method.name)
+        .addJavadoc(method.javadoc)
+        .addAnnotations(method.annotations)
+        .addModifiers(method.modifiers)
+        .addTypeVariables(method.typeVariables)
+        .returns(method.returnType)
+        .addParameters(method.parameters)
+        .varargs(method.varargs)
+        .addExceptions(method.exceptions)
+        .addCode(code)
+        .addCode(method.code)
+        .build();
+  }
+
+  static CodeBlock generatedInfo() {
     return CodeBlock.builder().add("Generated by " +
         "<a href=\"https://github.com/h908714124/auto-builder\">\nauto-builder " +
-        getClass().getPackage().getImplementationVersion() +
+        Builder.class.getPackage().getImplementationVersion() +
         "</a>\n").build();
   }
 }
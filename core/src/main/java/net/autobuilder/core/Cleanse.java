@@ -41,12 +41,25 @@ final class Cleanse {
     @Override
     public Stream<String> collectionish(CollectionParameter parameter, Void _null) {
       return Stream.of(parameter.parameter.setterName,
-          parameter.builderFieldName());
+          parameter.builderFieldName(), parameter.highWaterFieldName());
     }
 
     @Override
     public Stream<String> optionalish(OptionalParameter parameter, Void _null) {
-      return Stream.of(parameter.parameter.setterName);
+      return Stream.concat(Stream.of(parameter.parameter.setterName),
+          parameter.unwrappedFieldNames().stream());
+    }
+
+    @Override
+    public Stream<String> arrayish(ArrayParameter parameter, Void _null) {
+      return Stream.of(parameter.parameter.setterName,
+          parameter.builderFieldName());
+    }
+
+    @Override
+    public Stream<String> nestedish(NestedParameter parameter, Void _null) {
+      return Stream.of(parameter.parameter.setterName,
+          parameter.builderFieldName(), parameter.spareFieldName());
     }
   }
 
@@ -66,5 +79,15 @@ final class Cleanse {
     public Parameter optionalish(OptionalParameter parameter, Void _null) {
       return parameter.withParameter(parameter.parameter.originalNames());
     }
+
+    @Override
+    public Parameter arrayish(ArrayParameter parameter, Void _null) {
+      return parameter.withParameter(parameter.parameter.originalNames());
+    }
+
+    @Override
+    public Parameter nestedish(NestedParameter parameter, Void _null) {
+      return parameter.withParameter(parameter.parameter.originalNames());
+    }
   }
 }
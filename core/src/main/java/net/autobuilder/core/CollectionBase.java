@@ -6,7 +6,10 @@ import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.ParameterSpec;
 
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import java.util.Optional;
 
 import static net.autobuilder.core.Util.className;
 
@@ -20,16 +23,101 @@ public abstract class CollectionBase {
 
   abstract CodeBlock accumulatorInitBlock(FieldSpec builderField);
 
+  /**
+   * Creates an accumulator with room for {@code expectedSize} elements.
+   */
+  abstract CodeBlock sizedAccumulatorInitBlock(FieldSpec builderField, CodeBlock expectedSize);
+
+  /**
+   * Creates an accumulator for a property that already has a value,
+   * for example after {@code toBuilder}.
+   * The value is added to the accumulator afterwards.
+   */
+  CodeBlock valueAccumulatorInitBlock(FieldSpec builderField, FieldSpec field, CodeBlock expectedSize) {
+    return sizedAccumulatorInitBlock(builderField, expectedSize);
+  }
+
+  /**
+   * Grows an existing accumulator, if it supports that.
+   */
+  abstract Optional<CodeBlock> ensureCapacityBlock(FieldSpec builderField, CodeBlock expectedSize);
+
   public abstract CodeBlock emptyBlock();
 
   public abstract DeclaredType accumulatorType(RegularParameter parameter);
 
   abstract DeclaredType accumulatorOverloadArgumentType(RegularParameter parameter);
 
+  /**
+   * A variant of this base that builds with {@code List.copyOf} and the like,
+   * if this is a {@code java.util} collection.
+   */
+  CollectionBase withJdkCopies() {
+    return this;
+  }
+
+  /**
+   * Can the accumulator hold elements, or keys, of this type?
+   * If not, the property is treated like a regular property.
+   */
+  boolean supportsKeyType(TypeMirror keyType) {
+    return true;
+  }
+
+  /**
+   * The argument type of the {@code addTo} method.
+   */
+  TypeMirror accumulatorElementType(RegularParameter parameter) {
+    return accumulatorType(parameter).getTypeArguments().get(0);
+  }
+
+  /**
+   * The argument type of an additional {@code addTo} overload that takes an array.
+   */
+  Optional<ArrayType> accumulatorArrayOverloadArgumentType() {
+    return Optional.empty();
+  }
+
+  /**
+   * The number of elements in {@code collection}.
+   */
+  CodeBlock sizeBlock(CodeBlock collection) {
+    return CodeBlock.of("$L.size()", collection);
+  }
+
+  /**
+   * Adds the contents of the {@code addAllTo} or {@code putAllIn} argument to the accumulator.
+   */
+  CodeBlock addAllBlock(FieldSpec builderField, ParameterSpec values) {
+    return CodeBlock.builder().addStatement("this.$N.$L($N)", builderField,
+        collectionType.addAllMethod, values).build();
+  }
+
   public abstract CodeBlock setterAssignmentCode(RegularParameter parameter);
 
+  /**
+   * The property value that is passed to the constructor by a {@code with} method,
+   * which takes the property type.
+   */
+  CodeBlock witherValueBlock(ParameterSpec value) {
+    return CodeBlock.of("$N != null ? $N : $L", value, value, emptyBlock());
+  }
+
   public abstract CodeBlock buildBlock(FieldSpec field);
 
+  /**
+   * Creates an unmodifiable, right-sized copy of the accumulator,
+   * if the accumulator can be cleared and used again.
+   * If it can't, it is discarded when the builder is reset.
+   */
+  abstract Optional<CodeBlock> copyBlock(FieldSpec field);
+
+  /**
+   * Creates the property value from a {@code PrimitiveList} accumulator.
+   * Empty if the property can't be built from such an accumulator.
+   */
+  public abstract Optional<CodeBlock> unboxedBuildBlock(FieldSpec field);
+
   public abstract ParameterSpec setterParameter(RegularParameter parameter);
 
   CollectionBase(String collectionClassName,
@@ -40,6 +128,13 @@ public abstract class CollectionBase {
     this.collectionType = collectionType;
   }
 
+  /**
+   * Does the argument of the {@code addAllTo} or {@code putAllIn} method have a size?
+   */
+  boolean overloadArgumentHasSize() {
+    return !overloadArgumentType.equals("java.lang.Iterable");
+  }
+
   TypeElement overloadArgumentType() {
     return TypeTool.get().getTypeElement(overloadArgumentType);
   }
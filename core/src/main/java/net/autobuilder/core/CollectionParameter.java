@@ -1,9 +1,12 @@
 package net.autobuilder.core;
 
+import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
+import net.autobuilder.AutoBuilder;
 
 import javax.lang.model.element.Name;
 import javax.lang.model.element.TypeElement;
@@ -11,10 +14,13 @@ import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 
 import static java.util.Arrays.asList;
 import static javax.lang.model.element.Modifier.FINAL;
@@ -22,8 +28,13 @@ import static javax.lang.model.element.Modifier.PRIVATE;
 import static net.autobuilder.core.CollectionParameter.CollectionType.LIST;
 import static net.autobuilder.core.CollectionParameter.CollectionType.MAP;
 import static net.autobuilder.core.GuavaCollectionBase.ofGuava;
+import static net.autobuilder.core.GuavaCollectionBase.ofGuavaSorted;
+import static net.autobuilder.core.GuavaCollectionBase.ofGuavaTable;
+import static net.autobuilder.core.GuavaCollectionBase.ofGuavaUnsized;
+import static net.autobuilder.core.PrimitiveArrayBase.ofPrimitive;
 import static net.autobuilder.core.Util.asDeclared;
 import static net.autobuilder.core.Util.downcase;
+import static net.autobuilder.core.Util.typeArguments;
 import static net.autobuilder.core.Util.upcase;
 import static net.autobuilder.core.UtilCollectionBase.ofUtil;
 
@@ -31,12 +42,19 @@ public final class CollectionParameter extends Parameter {
 
   enum CollectionType {
 
-    LIST(1), MAP(2);
+    LIST(1, false), MAP(2, true), TABLE(3, true), PRIMITIVE_LIST(0, false);
 
     final int numberOfTypeargs;
 
-    CollectionType(int numberOfTypeargs) {
+    // putIn rather than addTo
+    final boolean keyed;
+
+    final String addAllMethod;
+
+    CollectionType(int numberOfTypeargs, boolean keyed) {
       this.numberOfTypeargs = numberOfTypeargs;
+      this.keyed = keyed;
+      this.addAllMethod = keyed ? "putAll" : "addAll";
     }
   }
 
@@ -46,7 +64,19 @@ public final class CollectionParameter extends Parameter {
       ofUtil("Map", "emptyMap", HashMap.class, MAP),
       ofGuava("ImmutableList", Iterable.class, LIST),
       ofGuava("ImmutableSet", Iterable.class, LIST),
-      ofGuava("ImmutableMap", Map.class, MAP));
+      ofGuava("ImmutableMap", Map.class, MAP),
+      ofGuavaUnsized("ImmutableMultiset", "java.lang.Iterable", LIST),
+      ofGuavaUnsized("ImmutableListMultimap", "com.google.common.collect.Multimap", MAP),
+      ofGuavaUnsized("ImmutableSetMultimap", "com.google.common.collect.Multimap", MAP),
+      ofGuavaSorted("ImmutableSortedSet", Iterable.class, LIST),
+      ofGuavaSorted("ImmutableSortedMap", Map.class, MAP),
+      ofGuavaTable(),
+      ofPrimitive("ImmutableIntArray", TypeKind.INT),
+      ofPrimitive("ImmutableLongArray", TypeKind.LONG),
+      ofPrimitive("ImmutableDoubleArray", TypeKind.DOUBLE));
+
+  // element types that unboxedAccumulators can store as primitives
+  private static final Map<String, TypeKind> UNBOXED = createUnboxed();
 
   public final CollectionBase base;
 
@@ -54,10 +84,23 @@ public final class CollectionParameter extends Parameter {
 
   private final boolean degenerate;
 
-  private CollectionParameter(CollectionBase base, RegularParameter parameter, boolean degenerate) {
+  // is the accumulator a PersistentList?
+  private final boolean persistent;
+
+  // if present, the accumulator is a PrimitiveList of this kind
+  private final Optional<TypeKind> unboxed;
+
+  private CollectionParameter(
+      CollectionBase base,
+      RegularParameter parameter,
+      boolean degenerate,
+      boolean persistent,
+      Optional<TypeKind> unboxed) {
     this.base = base;
     this.parameter = parameter;
     this.degenerate = degenerate;
+    this.persistent = persistent;
+    this.unboxed = unboxed;
   }
 
   private DeclaredType accumulatorOverloadArgumentType() {
@@ -68,8 +111,9 @@ public final class CollectionParameter extends Parameter {
    * @return a collectionish parameter, if this parameter
    * represents a collection type, or else {@link Optional#empty()}
    */
-  static Optional<Parameter> maybeCreate(RegularParameter parameter) {
-    return lookup(parameter).map(base -> {
+  static Optional<Parameter> maybeCreate(RegularParameter parameter, AutoBuilder options) {
+    return lookup(parameter).map(lookupBase -> {
+      CollectionBase base = lookupBase;
       boolean degenerate;
       TypeTool tool = TypeTool.get();
       DeclaredType declared = asDeclared(parameter.type());
@@ -83,10 +127,39 @@ public final class CollectionParameter extends Parameter {
               declared.getTypeArguments().get(0),
               tool.getTypeElement(base.overloadArgumentType).asType())) {
         degenerate = true;
+      } else if (base.collectionType.numberOfTypeargs > 0 &&
+          !base.supportsKeyType(declared.getTypeArguments().get(0))) {
+        degenerate = true;
       } else {
         degenerate = false;
       }
-      return new CollectionParameter(base, parameter, degenerate);
+      boolean persistent = options.persistentLists() && !degenerate &&
+          base.collectionClassName.equals("java.util.List");
+      if (options.jdkImmutableCollections() && !persistent) {
+        base = base.withJdkCopies();
+      }
+      if (options.enumAccumulators() && !degenerate && base.collectionType.numberOfTypeargs > 0) {
+        base = EnumCollectionBase.forEnum(base, declared.getTypeArguments().get(0),
+            options.jdkImmutableCollections()).orElse(base);
+      }
+      if (options.unboxedAccumulators() && !degenerate && !persistent &&
+          base.collectionType == CollectionType.LIST) {
+        Optional<TypeKind> unboxed = tool.getTypeElement(declared.getTypeArguments().get(0))
+            .map(TypeElement::getQualifiedName)
+            .map(Name::toString)
+            .map(UNBOXED::get);
+        if (unboxed.isPresent()) {
+          CollectionParameter candidate = new CollectionParameter(
+              base, parameter, degenerate, persistent, unboxed);
+          if (!candidate.unboxedBuildBlock().isPresent()) {
+            // a plugin that can't build from a list
+            throw new ValidationException("unboxedAccumulators is not supported for " +
+                base.collectionClassName + ".", parameter.variableElement);
+          }
+          return candidate;
+        }
+      }
+      return new CollectionParameter(base, parameter, degenerate, persistent, Optional.empty());
     });
   }
 
@@ -99,7 +172,18 @@ public final class CollectionParameter extends Parameter {
     return tool.getTypeElement(type)
         .map(TypeElement::getQualifiedName)
         .map(Name::toString)
-        .map(LOOKUP::get);
+        .flatMap(name -> LOOKUP.containsKey(name) ?
+            Optional.of(LOOKUP.get(name)) :
+            // the built-in types take precedence over the plugins
+            Plugins.get().lookup(name));
+  }
+
+  private static Map<String, TypeKind> createUnboxed() {
+    Map<String, TypeKind> map = new HashMap<>(3);
+    map.put(Integer.class.getCanonicalName(), TypeKind.INT);
+    map.put(Long.class.getCanonicalName(), TypeKind.LONG);
+    map.put(Double.class.getCanonicalName(), TypeKind.DOUBLE);
+    return map;
   }
 
   private static Map<String, CollectionBase> createLookup(CollectionBase... bases) {
@@ -111,61 +195,197 @@ public final class CollectionParameter extends Parameter {
   }
 
   public Optional<MethodSpec> accumulatorMethod(Model model) {
-    return base.collectionType == CollectionType.MAP ?
-        putInMethod() :
+    return base.collectionType.keyed ?
+        putInMethod(model) :
         addToMethod(model);
   }
 
   public Optional<MethodSpec> accumulatorMethodOverload(Model model) {
     DeclaredType addAllType = base.accumulatorOverloadArgumentType(parameter);
-    return base.collectionType == CollectionType.MAP ?
-        putAllInMethod(model, ParameterSpec.builder(TypeName.get(addAllType), "map").build()) :
-        addAllToMethod(model, ParameterSpec.builder(TypeName.get(addAllType), "values").build());
+    return base.collectionType.keyed ?
+        putAllInMethod(model, ParameterSpec.builder(TypeName.get(addAllType),
+            base.collectionType == CollectionType.TABLE ? "table" : "map").build()) :
+        addAllToMethod(model, addAllType);
+  }
+
+  /**
+   * @return an {@code addTo} overload that takes an array, if the accumulator supports that
+   */
+  public Optional<MethodSpec> accumulatorMethodArrayOverload(Model model) {
+    return base.accumulatorArrayOverloadArgumentType()
+        .flatMap(arrayType -> addAllToMethod(model, arrayType));
   }
 
   CollectionParameter withParameter(RegularParameter parameter) {
-    return new CollectionParameter(base, parameter, degenerate);
+    return new CollectionParameter(base, parameter, degenerate, persistent, unboxed);
   }
 
   String builderFieldName() {
     return downcase(parameter.setterName) + "Builder";
   }
 
+  String highWaterFieldName() {
+    return downcase(parameter.setterName) + "HighWater";
+  }
+
+  // the largest capacity that was requested from a recycled accumulator
+  private FieldSpec highWaterField() {
+    return FieldSpec.builder(TypeName.INT, highWaterFieldName())
+        .addModifiers(PRIVATE).build();
+  }
+
+  /**
+   * The property value in {@code build()},
+   * if the accumulator is cleared rather than discarded when the builder is reset.
+   */
+  public Optional<CodeBlock> recycledBuildBlock(Model model, FieldSpec builderField) {
+    if (!model.recycleAccumulators || degenerate || persistent || unboxed.isPresent()) {
+      return Optional.empty();
+    }
+    // an accumulator of this size would never be kept
+    if (model.capacity(parameter).orElse(0) > model.maxRetainedCapacity) {
+      return Optional.empty();
+    }
+    return base.copyBlock(builderField);
+  }
+
+  /**
+   * Is the accumulator cleared, rather than discarded, when the builder is reset?
+   */
+  public boolean recyclesAccumulator(Model model) {
+    return asBuilderField()
+        .flatMap(builderField -> recycledBuildBlock(model, builderField))
+        .isPresent();
+  }
+
+  @Override
+  List<FieldSpec> additionalFields(Model model) {
+    if (!recyclesAccumulator(model)) {
+      return Collections.emptyList();
+    }
+    return Collections.singletonList(highWaterField());
+  }
+
+  /**
+   * Clears the accumulator, so that it can be used again.
+   * If it has held more than {@code maxRetainedCapacity} elements,
+   * or was asked to make room for more, it is discarded instead.
+   */
+  public CodeBlock recycleAccumulatorBlock(Model model, FieldSpec builderField) {
+    FieldSpec highWater = highWaterField();
+    return CodeBlock.builder()
+        .beginControlFlow("if (this.$N != null)", builderField)
+        .beginControlFlow("if ($T.max(this.$N, this.$N.size()) > $L)",
+            Math.class, highWater, builderField, model.maxRetainedCapacity)
+        .addStatement("this.$N = null", builderField)
+        .addStatement("this.$N = 0", highWater)
+        .nextControlFlow("else")
+        .addStatement("this.$N.clear()", builderField)
+        .endControlFlow()
+        .endControlFlow()
+        .build();
+  }
+
+  /**
+   * @return the code that creates the property value from
+   * the {@code PrimitiveList} accumulator, if the accumulator is one
+   */
+  public Optional<CodeBlock> unboxedBuildBlock() {
+    if (!unboxed.isPresent()) {
+      return Optional.empty();
+    }
+    return asBuilderField().flatMap(base::unboxedBuildBlock);
+  }
+
+  @Override
+  Optional<TypeKind> unboxedKind() {
+    return unboxed;
+  }
+
+  @Override
+  CodeBlock witherValueBlock(ParameterSpec value) {
+    return base.witherValueBlock(value);
+  }
+
+  @Override
+  CodeBlock cleanupCode(Model model) {
+    if (!recyclesAccumulator(model)) {
+      return super.cleanupCode(model);
+    }
+    FieldSpec builderField = asBuilderField().get();
+    return CodeBlock.builder()
+        .addStatement("$N = null", parameter.asField())
+        .add(recycleAccumulatorBlock(model, builderField))
+        .build();
+  }
+
+  @Override
+  Optional<CodeBlock> accumulatorUnused(Model model) {
+    if (!recyclesAccumulator(model)) {
+      return super.accumulatorUnused(model);
+    }
+    return asBuilderField().map(field -> CodeBlock.of("($N == null || $N.isEmpty())", field, field));
+  }
+
   public Optional<FieldSpec> asBuilderField() {
     if (degenerate) {
       return Optional.empty();
     }
-    return Optional.of(FieldSpec.builder(TypeName.get(base.accumulatorType(parameter)),
+    TypeName type;
+    if (persistent) {
+      type = ParameterizedTypeName.get(Model.persistentListClass(parameter.generatedClass),
+          typeArguments(parameter.variableElement));
+    } else if (unboxed.isPresent()) {
+      type = Model.primitiveListClass(parameter.generatedClass, unboxed.get());
+    } else {
+      type = TypeName.get(base.accumulatorType(parameter));
+    }
+    return Optional.of(FieldSpec.builder(type,
         builderFieldName()).addModifiers(PRIVATE).build());
   }
 
   private Optional<MethodSpec> addAllToMethod(
       Model model,
-      ParameterSpec param) {
-    return asBuilderField().flatMap(builderField -> _addAllToMethod(model, param, builderField));
+      TypeMirror type) {
+    return asBuilderField().flatMap(builderField -> _addAllToMethod(model, type, builderField));
   }
 
   private Optional<MethodSpec> _addAllToMethod(
       Model model,
-      ParameterSpec param,
+      TypeMirror type,
       FieldSpec builderField) {
     FieldSpec field = parameter.asField();
+    ParameterSpec param = ParameterSpec.builder(TypeName.get(type), "values").build();
     String methodName = "addTo" + upcase(parameter.setterName);
-    if (model.isSetterMethodNameCollision(methodName, accumulatorOverloadArgumentType())) {
+    if (model.isSetterMethodNameCollision(methodName, type)) {
       return Optional.empty();
     }
+    CodeBlock added;
+    if (type.getKind() == TypeKind.ARRAY) {
+      added = CodeBlock.of("$N.length", param);
+    } else if (base.overloadArgumentHasSize()) {
+      added = base.sizeBlock(CodeBlock.of("$N", param));
+    } else {
+      added = CodeBlock.of("0");
+    }
     MethodSpec.Builder spec = MethodSpec.methodBuilder(methodName);
     spec.beginControlFlow("if ($N == null)", param)
         .addStatement("return this")
         .endControlFlow();
-    spec.beginControlFlow("if (this.$N == null)", builderField)
-        .addCode(base.accumulatorInitBlock(builderField))
-        .endControlFlow();
-    spec.beginControlFlow("if (this.$N != null)", field)
-        .addStatement("this.$N.addAll(this.$N)", builderField, field)
-        .addStatement("this.$N = null", field)
-        .endControlFlow();
-    spec.addStatement("this.$N.addAll($N)", builderField, param);
+    if (persistent) {
+      spec.addCode(persistentInitBlock(model, builderField))
+          .addStatement("this.$N = this.$N.appendAll($N)", builderField, builderField, param);
+    } else if (unboxed.isPresent()) {
+      spec.addCode(unboxedInitBlock(model, builderField))
+          .addStatement("this.$N.appendAll($N)", builderField, param);
+    } else {
+      spec.addCode(accumulatorInitBlock(model, builderField, added));
+      spec.beginControlFlow("if (this.$N != null)", field)
+          .addStatement("this.$N.addAll(this.$N)", builderField, field)
+          .addStatement("this.$N = null", field)
+          .endControlFlow();
+      spec.addCode(base.addAllBlock(builderField, param));
+    }
     return Optional.of(spec
         .addStatement("return this")
         .addParameter(param)
@@ -193,14 +413,13 @@ public final class CollectionParameter extends Parameter {
     spec.beginControlFlow("if ($N == null)", param)
         .addStatement("return this")
         .endControlFlow();
-    spec.beginControlFlow("if (this.$N == null)", builderField)
-        .addCode(base.accumulatorInitBlock(builderField))
-        .endControlFlow();
+    spec.addCode(accumulatorInitBlock(model, builderField,
+        base.overloadArgumentHasSize() ? base.sizeBlock(CodeBlock.of("$N", param)) : CodeBlock.of("0")));
     spec.beginControlFlow("if (this.$N != null)", field)
         .addStatement("this.$N.putAll(this.$N)", builderField, field)
         .addStatement("this.$N = null", field)
         .endControlFlow();
-    spec.addStatement("this.$N.putAll($N)", builderField, param);
+    spec.addCode(base.addAllBlock(builderField, param));
     return Optional.of(spec
         .addStatement("return this")
         .addParameter(param)
@@ -211,22 +430,48 @@ public final class CollectionParameter extends Parameter {
   }
 
   private Optional<MethodSpec> addToMethod(Model model) {
-    return asBuilderField().flatMap(builderField -> _addToMethod(model, builderField));
+    return asBuilderField().flatMap(builderField ->
+        _addToMethod(model, builderField, base.accumulatorElementType(parameter)));
+  }
+
+  /**
+   * @return an {@code addTo} overload that takes a primitive, if the accumulator stores primitives
+   */
+  public Optional<MethodSpec> accumulatorMethodPrimitiveOverload(Model model) {
+    return unboxed.flatMap(kind -> asBuilderField().flatMap(builderField ->
+        _addToMethod(model, builderField, TypeTool.get().getPrimitiveType(kind))));
   }
 
-  private Optional<MethodSpec> _addToMethod(Model model, FieldSpec builderField) {
+  private Optional<MethodSpec> _addToMethod(Model model, FieldSpec builderField, TypeMirror elementType) {
     FieldSpec field = parameter.asField();
-    DeclaredType accumulatorType = base.accumulatorType(parameter);
     ParameterSpec key =
-        ParameterSpec.builder(TypeName.get(accumulatorType.getTypeArguments().get(0)), "value").build();
+        ParameterSpec.builder(TypeName.get(elementType), "value").build();
     String methodName = "addTo" + upcase(parameter.setterName);
-    if (model.isSetterMethodNameCollision(methodName, accumulatorType.getTypeArguments().get(0))) {
+    if (model.isSetterMethodNameCollision(methodName, elementType)) {
       return Optional.empty();
     }
     MethodSpec.Builder spec = MethodSpec.methodBuilder(methodName);
-    spec.beginControlFlow("if (this.$N == null)", builderField)
-        .addCode(base.accumulatorInitBlock(builderField))
-        .endControlFlow();
+    if (persistent) {
+      spec.addCode(persistentInitBlock(model, builderField))
+          .addStatement("this.$N = this.$N.append($N)", builderField, builderField, key);
+      return Optional.of(spec.addStatement("return this")
+          .addParameter(key)
+          .addModifiers(FINAL)
+          .addModifiers(parameter.maybePublic())
+          .returns(parameter.generatedClass)
+          .build());
+    }
+    if (unboxed.isPresent()) {
+      spec.addCode(unboxedInitBlock(model, builderField))
+          .addStatement("this.$N.append($N)", builderField, key);
+      return Optional.of(spec.addStatement("return this")
+          .addParameter(key)
+          .addModifiers(FINAL)
+          .addModifiers(parameter.maybePublic())
+          .returns(parameter.generatedClass)
+          .build());
+    }
+    spec.addCode(accumulatorInitBlock(model, builderField, CodeBlock.of("1")));
     spec.beginControlFlow("if (this.$N != null)", field)
         .addStatement("this.$N.addAll(this.$N)", builderField, field)
         .addStatement("this.$N = null", field)
@@ -241,36 +486,169 @@ public final class CollectionParameter extends Parameter {
         .build());
   }
 
-  private Optional<MethodSpec> putInMethod() {
-    return asBuilderField().flatMap(this::_putInMethod);
+  private Optional<MethodSpec> putInMethod(Model model) {
+    return asBuilderField().flatMap(builderField -> _putInMethod(model, builderField));
   }
 
-  private Optional<MethodSpec> _putInMethod(FieldSpec builderField) {
+  private Optional<MethodSpec> _putInMethod(Model model, FieldSpec builderField) {
     FieldSpec field = parameter.asField();
     DeclaredType accumulatorType = base.accumulatorType(parameter);
-    ParameterSpec key =
-        ParameterSpec.builder(TypeName.get(accumulatorType.getTypeArguments().get(0)), "key").build();
-    ParameterSpec value =
-        ParameterSpec.builder(TypeName.get(accumulatorType.getTypeArguments().get(1)), "value").build();
+    List<String> names = base.collectionType == CollectionType.TABLE ?
+        asList("rowKey", "columnKey", "value") :
+        asList("key", "value");
+    List<ParameterSpec> params = new ArrayList<>(names.size());
+    for (int i = 0; i < names.size(); i++) {
+      params.add(ParameterSpec.builder(TypeName.get(accumulatorType.getTypeArguments().get(i)), names.get(i)).build());
+    }
     String methodName = "putIn" + upcase(parameter.setterName);
     MethodSpec.Builder spec = MethodSpec.methodBuilder(methodName);
+    spec.addCode(accumulatorInitBlock(model, builderField, CodeBlock.of("1")));
+    spec.beginControlFlow("if (this.$N != null)", field)
+        .addStatement("this.$N.putAll(this.$N)", builderField, field)
+        .addStatement("this.$N = null", field)
+        .endControlFlow();
+    spec.addStatement("this.$N.put($L)", builderField, params.stream()
+        .map(param -> CodeBlock.of("$N", param))
+        .collect(CodeBlock.joining(", ")));
+    return Optional.of(spec.addStatement("return this")
+        .addParameters(params)
+        .addModifiers(FINAL)
+        .addModifiers(parameter.maybePublic())
+        .returns(parameter.generatedClass)
+        .build());
+  }
+
+  public Optional<MethodSpec> ensureCapacityMethod(Model model) {
+    return asBuilderField().flatMap(builderField -> _ensureCapacityMethod(model, builderField));
+  }
+
+  private Optional<MethodSpec> _ensureCapacityMethod(Model model, FieldSpec builderField) {
+    FieldSpec field = parameter.asField();
+    ParameterSpec expectedSize = ParameterSpec.builder(TypeName.INT, "expectedSize").build();
+    String methodName = "ensureCapacityFor" + upcase(parameter.setterName);
+    if (model.isSetterMethodNameCollision(methodName, TypeTool.get().getPrimitiveType(TypeKind.INT))) {
+      return Optional.empty();
+    }
+    MethodSpec.Builder spec = MethodSpec.methodBuilder(methodName)
+        .addJavadoc("Makes room for {@code expectedSize} elements,\n" +
+            "so that the accumulator doesn't have to grow while it is filled.\n");
+    if (recyclesAccumulator(model)) {
+      // the accumulator may be cleared with this capacity
+      FieldSpec highWater = highWaterField();
+      spec.addStatement("this.$N = $T.max(this.$N, $N)", highWater, Math.class, highWater, expectedSize);
+    }
+    if (persistent) {
+      spec.beginControlFlow("if (this.$N == null)", builderField)
+          .addStatement("this.$N = $T.of(this.$N, $N)",
+              builderField, model.persistentListClass(), field, expectedSize)
+          .addStatement("this.$N = null", field)
+          .endControlFlow();
+      return Optional.of(spec.addStatement("return this")
+          .addParameter(expectedSize)
+          .addModifiers(FINAL)
+          .addModifiers(parameter.maybePublic())
+          .returns(parameter.generatedClass)
+          .build());
+    }
+    if (unboxed.isPresent()) {
+      spec.beginControlFlow("if (this.$N == null)", builderField)
+          .addStatement("this.$N = $T.of(this.$N, $N)",
+              builderField, model.primitiveListClass(unboxed.get()), field, expectedSize)
+          .addStatement("this.$N = null", field)
+          .nextControlFlow("else")
+          .addStatement("this.$N.ensureCapacity($N)", builderField, expectedSize)
+          .endControlFlow();
+      return Optional.of(spec.addStatement("return this")
+          .addParameter(expectedSize)
+          .addModifiers(FINAL)
+          .addModifiers(parameter.maybePublic())
+          .returns(parameter.generatedClass)
+          .build());
+    }
     spec.beginControlFlow("if (this.$N == null)", builderField)
-        .addCode(base.accumulatorInitBlock(builderField))
+        .beginControlFlow("if (this.$N != null)", field)
+        .addCode(base.valueAccumulatorInitBlock(builderField, field,
+            CodeBlock.of("$T.max($N, $L)", Math.class, expectedSize, base.sizeBlock(CodeBlock.of("this.$N", field)))))
+        .nextControlFlow("else")
+        .addCode(base.sizedAccumulatorInitBlock(builderField, CodeBlock.of("$N", expectedSize)))
         .endControlFlow();
+    base.ensureCapacityBlock(builderField, CodeBlock.of("$N", expectedSize))
+        .ifPresent(block -> spec.nextControlFlow("else").addCode(block));
+    spec.endControlFlow();
     spec.beginControlFlow("if (this.$N != null)", field)
-        .addStatement("this.$N.putAll(this.$N)", builderField, field)
+        .addStatement("this.$N.$L(this.$N)", builderField,
+            base.collectionType.addAllMethod, field)
         .addStatement("this.$N = null", field)
         .endControlFlow();
-    spec.addStatement("this.$N.put($N, $N)",
-        builderField, key, value);
     return Optional.of(spec.addStatement("return this")
-        .addParameters(asList(key, value))
+        .addParameter(expectedSize)
         .addModifiers(FINAL)
         .addModifiers(parameter.maybePublic())
         .returns(parameter.generatedClass)
         .build());
   }
 
+  /**
+   * Creates the persistent list, if there is none yet.
+   * If the property already holds a persistent list,
+   * for example after {@code toBuilder}, it is used as is.
+   */
+  private CodeBlock persistentInitBlock(Model model, FieldSpec builderField) {
+    FieldSpec field = parameter.asField();
+    OptionalInt capacity = model.capacity(parameter);
+    return CodeBlock.builder()
+        .beginControlFlow("if (this.$N == null)", builderField)
+        .addStatement("this.$N = $T.of(this.$N, $L)",
+            builderField, model.persistentListClass(), field,
+            capacity.orElse(PersistentList.DEFAULT_CAPACITY))
+        .addStatement("this.$N = null", field)
+        .endControlFlow()
+        .build();
+  }
+
+  /**
+   * Creates the primitive accumulator, if there is none yet.
+   * It starts out with the current value of the property.
+   */
+  private CodeBlock unboxedInitBlock(Model model, FieldSpec builderField) {
+    FieldSpec field = parameter.asField();
+    OptionalInt capacity = model.capacity(parameter);
+    return CodeBlock.builder()
+        .beginControlFlow("if (this.$N == null)", builderField)
+        .addStatement("this.$N = $T.of(this.$N, $L)",
+            builderField, model.primitiveListClass(unboxed.get()), field,
+            capacity.orElse(PrimitiveList.DEFAULT_CAPACITY))
+        .addStatement("this.$N = null", field)
+        .endControlFlow()
+        .build();
+  }
+
+  /**
+   * Creates the accumulator, if there is none yet.
+   * If the property already has a value, for example after {@code toBuilder},
+   * the accumulator is sized to hold the existing elements
+   * and the {@code added} ones, or the capacity hint, whichever is larger.
+   */
+  private CodeBlock accumulatorInitBlock(Model model, FieldSpec builderField, CodeBlock added) {
+    FieldSpec field = parameter.asField();
+    OptionalInt capacity = model.capacity(parameter);
+    CodeBlock expectedSize = CodeBlock.of("$L + $L", base.sizeBlock(CodeBlock.of("this.$N", field)), added);
+    if (capacity.isPresent()) {
+      expectedSize = CodeBlock.of("$T.max($L, $L)", Math.class, capacity.getAsInt(), expectedSize);
+    }
+    return CodeBlock.builder()
+        .beginControlFlow("if (this.$N == null)", builderField)
+        .beginControlFlow("if (this.$N != null)", field)
+        .add(base.valueAccumulatorInitBlock(builderField, field, expectedSize))
+        .nextControlFlow("else")
+        .add(capacity.isPresent() ?
+            base.sizedAccumulatorInitBlock(builderField, CodeBlock.of("$L", capacity.getAsInt())) :
+            base.accumulatorInitBlock(builderField))
+        .endControlFlow()
+        .endControlFlow()
+        .build();
+  }
+
   @Override
   <R, P> R accept(ParamCases<R, P> cases, P p) {
     return cases.collectionish(this, p);
@@ -0,0 +1,130 @@
+package net.autobuilder.core;
+
+import com.squareup.javapoet.CodeBlock;
+
+import java.util.Optional;
+
+/**
+ * <p>Teaches the processor about another collection type,
+ * so that properties of this type get {@code addTo} or {@code putIn} methods.
+ * Implementations are found with {@link java.util.ServiceLoader}
+ * on the annotation processor path, so they must have a public
+ * no-argument constructor, and be listed in
+ * {@code META-INF/services/net.autobuilder.core.CollectionPlugin}.</p>
+ *
+ * <p>The collection type must have one type parameter,
+ * or two if {@link #keyed()} is true.
+ * The accumulator has the same type arguments as the property.
+ * It needs an {@code add} and an {@code addAll} method,
+ * or a {@code put} and a {@code putAll} method.
+ * {@code addAll} or {@code putAll} must accept both the property type
+ * and the {@link #overloadArgumentClassName() overload argument}.</p>
+ *
+ * <p>The built-in collection types can't be replaced.
+ * The plugins are loaded at the start of each processing round.
+ * A plugin that can't be loaded is reported as a compile error.</p>
+ *
+ * <p>The generated code is passed in and out as JavaPoet {@code CodeBlock}s,
+ * so {@code com.squareup:javapoet} is part of this interface.
+ * Plugins should be compiled against the JavaPoet version
+ * that the processor depends on.</p>
+ *
+ * @see BiMapPlugin
+ */
+public abstract class CollectionPlugin {
+
+  /**
+   * @return the qualified name of the property type,
+   * like {@code com.google.common.collect.ImmutableBiMap}
+   */
+  public abstract String collectionClassName();
+
+  /**
+   * @return the qualified name of the accumulator type,
+   * like {@code com.google.common.collect.ImmutableBiMap.Builder}
+   */
+  public abstract String accumulatorClassName();
+
+  /**
+   * @return true if the accumulator method is {@code putIn(key, value)},
+   * false if it is {@code addTo(element)}
+   */
+  public boolean keyed() {
+    return false;
+  }
+
+  /**
+   * @return the qualified name of the argument type
+   * of the {@code addTo} or {@code putIn} overload that adds many elements
+   */
+  public String overloadArgumentClassName() {
+    return keyed() ? "java.util.Map" : "java.util.Collection";
+  }
+
+  /**
+   * @return the qualified name of the setter argument type;
+   * it gets the same type arguments as the property
+   */
+  public String setterParameterClassName() {
+    return collectionClassName();
+  }
+
+  /**
+   * @return an expression that creates an empty accumulator
+   */
+  public abstract CodeBlock accumulatorInitBlock();
+
+  /**
+   * @param expectedSize an {@code int} expression
+   * @return an expression that creates an empty accumulator
+   * with room for {@code expectedSize} elements
+   */
+  public CodeBlock sizedAccumulatorInitBlock(CodeBlock expectedSize) {
+    return accumulatorInitBlock();
+  }
+
+  /**
+   * @param accumulator an expression of the accumulator type
+   * @return an expression of the property type that contains the accumulated elements
+   */
+  public abstract CodeBlock buildBlock(CodeBlock accumulator);
+
+  /**
+   * <p>Needed for {@code recycleAccumulators}.
+   * Without it, the accumulator is discarded when the builder is reset.</p>
+   *
+   * @param accumulator an expression of the accumulator type
+   * @return an expression of the property type that copies the accumulated elements,
+   * so that the accumulator can then be emptied with {@code clear()} and used again,
+   * or {@link Optional#empty()} if the accumulator can't be cleared
+   */
+  public Optional<CodeBlock> copyBlock(CodeBlock accumulator) {
+    return Optional.empty();
+  }
+
+  /**
+   * <p>Needed for {@code unboxedAccumulators},
+   * if the property has {@code Integer}, {@code Long} or {@code Double} elements.
+   * Without it, such a property is a compile error.</p>
+   *
+   * @param elements an expression of type {@code java.util.List}
+   * @return an expression of the property type that contains these elements,
+   * or {@link Optional#empty()} if the property can't be built from a list
+   */
+  public Optional<CodeBlock> unboxedBuildBlock(CodeBlock elements) {
+    return Optional.empty();
+  }
+
+  /**
+   * @return an expression of the property type that has no elements
+   */
+  public abstract CodeBlock emptyBlock();
+
+  /**
+   * @param value an expression of the setter argument type, which may be {@code null}
+   * @return an expression of the property type, which is stored by the setter
+   */
+  public CodeBlock setterAssignmentBlock(CodeBlock value) {
+    return value;
+  }
+}
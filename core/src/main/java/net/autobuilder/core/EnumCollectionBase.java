@@ -0,0 +1,177 @@
+package net.autobuilder.core;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.WildcardTypeName;
+
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+import static net.autobuilder.core.CollectionParameter.CollectionType.MAP;
+
+/**
+ * A {@code Set} or {@code Map} whose element or key type is an enum.
+ * The accumulator is an {@code EnumSet} or {@code EnumMap}.
+ * The Guava types are built with {@code Sets.immutableEnumSet}
+ * and {@code Maps.immutableEnumMap}.
+ * Everything that doesn't touch the accumulator is delegated to the
+ * base of the collection type, so the setters don't change.
+ */
+final class EnumCollectionBase extends CollectionBase {
+
+  private static final String GCC = "com.google.common.collect.";
+
+  private final CollectionBase delegate;
+
+  // the element or key type
+  private final TypeName enumType;
+
+  private final ClassName accumulatorClass;
+
+  private final boolean guava;
+
+  // if true, build() uses the Set.copyOf or Map.copyOf of the delegate,
+  // so the result is the same as without enumAccumulators
+  private final boolean jdkCopies;
+
+  private EnumCollectionBase(CollectionBase delegate, TypeName enumType, boolean guava, boolean jdkCopies) {
+    super(delegate.collectionClassName, delegate.overloadArgumentType, delegate.collectionType);
+    this.delegate = delegate;
+    this.enumType = enumType;
+    this.accumulatorClass = ClassName.get(delegate.collectionType == MAP ? EnumMap.class : EnumSet.class);
+    this.guava = guava;
+    this.jdkCopies = jdkCopies;
+  }
+
+  /**
+   * @return an enum base, if {@code base} is a set or map type
+   * and {@code keyType} is an enum
+   */
+  static Optional<CollectionBase> forEnum(CollectionBase base, TypeMirror keyType, boolean jdkCopies) {
+    boolean guava;
+    switch (base.collectionClassName) {
+      case "java.util.Set":
+      case "java.util.Map":
+        guava = false;
+        break;
+      case GCC + "ImmutableSet":
+      case GCC + "ImmutableMap":
+        guava = true;
+        break;
+      default:
+        return Optional.empty();
+    }
+    return TypeTool.get().getTypeElement(keyType)
+        .filter(element -> element.getKind() == ElementKind.ENUM)
+        .map(element -> new EnumCollectionBase(base, TypeName.get(keyType), guava, jdkCopies));
+  }
+
+  @Override
+  CodeBlock accumulatorInitBlock(FieldSpec builderField) {
+    if (collectionType == MAP) {
+      return CodeBlock.builder().addStatement("this.$N = new $T<>($T.class)",
+          builderField, accumulatorClass, enumType).build();
+    }
+    return CodeBlock.builder().addStatement("this.$N = $T.noneOf($T.class)",
+        builderField, accumulatorClass, enumType).build();
+  }
+
+  @Override
+  CodeBlock sizedAccumulatorInitBlock(FieldSpec builderField, CodeBlock expectedSize) {
+    // the size is fixed by the number of enum constants
+    return accumulatorInitBlock(builderField);
+  }
+
+  @Override
+  Optional<CodeBlock> ensureCapacityBlock(FieldSpec builderField, CodeBlock expectedSize) {
+    return Optional.empty();
+  }
+
+  @Override
+  public CodeBlock emptyBlock() {
+    return delegate.emptyBlock();
+  }
+
+  @Override
+  public DeclaredType accumulatorType(RegularParameter parameter) {
+    TypeTool tool = TypeTool.get();
+    List<? extends TypeMirror> typeArguments = tool.getDeclaredType(parameter.variableElement.asType()).getTypeArguments();
+    return tool.getDeclaredType(accumulatorClass.packageName() + '.' + accumulatorClass.simpleName(), typeArguments);
+  }
+
+  @Override
+  DeclaredType accumulatorOverloadArgumentType(RegularParameter parameter) {
+    return delegate.accumulatorOverloadArgumentType(parameter);
+  }
+
+  @Override
+  CodeBlock addAllBlock(FieldSpec builderField, ParameterSpec values) {
+    if (!guava) {
+      return super.addAllBlock(builderField, values);
+    }
+    if (collectionType != MAP) {
+      return CodeBlock.builder().addStatement("$T.addAll(this.$N, $N)",
+          ClassName.bestGuess(GCC + "Iterables"), builderField, values).build();
+    }
+    // the argument is an Iterable of entries, which EnumMap can't take directly
+    TypeName entryType = ((WildcardTypeName) ((ParameterizedTypeName) values.type).typeArguments.get(0))
+        .upperBounds.get(0);
+    return CodeBlock.builder()
+        .beginControlFlow("for ($T entry : $N)", entryType, values)
+        .addStatement("this.$N.put(entry.getKey(), entry.getValue())", builderField)
+        .endControlFlow()
+        .build();
+  }
+
+  @Override
+  public CodeBlock setterAssignmentCode(RegularParameter parameter) {
+    return delegate.setterAssignmentCode(parameter);
+  }
+
+  @Override
+  CodeBlock witherValueBlock(ParameterSpec value) {
+    return delegate.witherValueBlock(value);
+  }
+
+  @Override
+  public CodeBlock buildBlock(FieldSpec field) {
+    if (!guava) {
+      return jdkCopies ? delegate.buildBlock(field) : CodeBlock.of("$N", field);
+    }
+    return collectionType == MAP ?
+        CodeBlock.of("$T.immutableEnumMap($N)", ClassName.bestGuess(GCC + "Maps"), field) :
+        CodeBlock.of("$T.immutableEnumSet($N)", ClassName.bestGuess(GCC + "Sets"), field);
+  }
+
+  @Override
+  Optional<CodeBlock> copyBlock(FieldSpec field) {
+    // the guava and jdk buildBlocks already copy
+    return Optional.of(guava || jdkCopies ? buildBlock(field) : copy(field));
+  }
+
+  private CodeBlock copy(FieldSpec field) {
+    return collectionType == MAP ?
+        CodeBlock.of("$T.unmodifiableMap(new $T<>($N))", Collections.class, accumulatorClass, field) :
+        CodeBlock.of("$T.unmodifiableSet($T.copyOf($N))", Collections.class, accumulatorClass, field);
+  }
+
+  @Override
+  public Optional<CodeBlock> unboxedBuildBlock(FieldSpec field) {
+    return Optional.empty();
+  }
+
+  @Override
+  public ParameterSpec setterParameter(RegularParameter parameter) {
+    return delegate.setterParameter(parameter);
+  }
+}
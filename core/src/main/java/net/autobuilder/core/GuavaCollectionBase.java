@@ -12,7 +12,9 @@ import javax.lang.model.type.TypeMirror;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
+import static net.autobuilder.core.Util.className;
 import static net.autobuilder.core.Util.typeArgumentSubtypes;
 
 final class GuavaCollectionBase extends CollectionBase {
@@ -21,26 +23,100 @@ final class GuavaCollectionBase extends CollectionBase {
 
   private final ClassName setterParameterClassName;
 
+  // does the collection have a builderWithExpectedSize method?
+  private final boolean sizable;
+
+  // is it ImmutableSortedSet or ImmutableSortedMap?
+  private final boolean sorted;
+
   private GuavaCollectionBase(
       String className,
+      String overloadArgumentType,
       CollectionParameter.CollectionType type,
-      ClassName setterParameterClassName) {
-    super(className, "java.lang.Iterable", type);
+      ClassName setterParameterClassName,
+      boolean sizable,
+      boolean sorted) {
+    super(className, overloadArgumentType, type);
     this.setterParameterClassName = setterParameterClassName;
+    this.sizable = sizable;
+    this.sorted = sorted;
   }
 
   static CollectionBase ofGuava(
       String simpleName,
       Class<?> setterParameterClass,
       CollectionParameter.CollectionType type) {
-    return new GuavaCollectionBase(GCC + simpleName, type,
-        ClassName.get(setterParameterClass));
+    return new GuavaCollectionBase(GCC + simpleName, "java.lang.Iterable", type,
+        ClassName.get(setterParameterClass), true, false);
+  }
+
+  /**
+   * A collection whose builder can't be created with an expected size,
+   * like {@code ImmutableMultiset} or {@code ImmutableListMultimap}.
+   */
+  static CollectionBase ofGuavaUnsized(
+      String simpleName,
+      String setterParameterClass,
+      CollectionParameter.CollectionType type) {
+    return new GuavaCollectionBase(GCC + simpleName, "java.lang.Iterable", type,
+        className(setterParameterClass), false, false);
+  }
+
+  /**
+   * {@code ImmutableTable}; its {@code putAllIn} method takes another table.
+   */
+  static CollectionBase ofGuavaTable() {
+    return new GuavaCollectionBase(GCC + "ImmutableTable", GCC + "Table",
+        CollectionParameter.CollectionType.TABLE, className(GCC + "Table"), false, false);
+  }
+
+  /**
+   * {@code ImmutableSortedSet} or {@code ImmutableSortedMap}.
+   * The builder keeps the comparator of the current value,
+   * or else uses the natural order.
+   */
+  static CollectionBase ofGuavaSorted(
+      String simpleName,
+      Class<?> setterParameterClass,
+      CollectionParameter.CollectionType type) {
+    return new GuavaCollectionBase(GCC + simpleName, "java.lang.Iterable", type,
+        ClassName.get(setterParameterClass), false, true);
   }
 
   @Override
   CodeBlock accumulatorInitBlock(FieldSpec builderField) {
-    return CodeBlock.builder().addStatement("this.$N = $T.builder()",
-        builderField, collectionClassName()).build();
+    return CodeBlock.builder().addStatement("this.$N = $T.$L()",
+        builderField, collectionClassName(), sorted ? "naturalOrder" : "builder").build();
+  }
+
+  @Override
+  CodeBlock sizedAccumulatorInitBlock(FieldSpec builderField, CodeBlock expectedSize) {
+    if (!sizable) {
+      return accumulatorInitBlock(builderField);
+    }
+    return CodeBlock.builder().addStatement("this.$N = $T.builderWithExpectedSize($L)",
+        builderField, collectionClassName(), expectedSize).build();
+  }
+
+  @Override
+  CodeBlock valueAccumulatorInitBlock(FieldSpec builderField, FieldSpec field, CodeBlock expectedSize) {
+    if (!sorted) {
+      return super.valueAccumulatorInitBlock(builderField, field, expectedSize);
+    }
+    return CodeBlock.builder().addStatement("this.$N = new $T.Builder<>(this.$N.comparator())",
+        builderField, collectionClassName(), field).build();
+  }
+
+  @Override
+  boolean supportsKeyType(TypeMirror keyType) {
+    // naturalOrder() needs Comparable elements
+    return !sorted || TypeTool.get().isAssignableToErasure(keyType, Comparable.class);
+  }
+
+  @Override
+  Optional<CodeBlock> ensureCapacityBlock(FieldSpec builderField, CodeBlock expectedSize) {
+    // ImmutableCollection.Builder can't be resized from outside
+    return Optional.empty();
   }
 
   @Override
@@ -59,7 +135,7 @@ final class GuavaCollectionBase extends CollectionBase {
   DeclaredType accumulatorOverloadArgumentType(RegularParameter parameter) {
     TypeMirror[] typeArguments = typeArgumentSubtypes(parameter.variableElement);
     TypeTool tool = TypeTool.get();
-    return collectionType == CollectionParameter.CollectionType.LIST ?
+    return collectionType != CollectionParameter.CollectionType.MAP ?
         tool.getDeclaredType(overloadArgumentType().asType(), typeArguments) :
         tool.getDeclaredType(overloadArgumentType().asType(),
             tool.asExtendsWildcard(tool.getDeclaredType(tool.getTypeElement(Map.Entry.class).asType(), typeArguments)));
@@ -69,6 +145,8 @@ final class GuavaCollectionBase extends CollectionBase {
   public CodeBlock setterAssignmentCode(RegularParameter parameter) {
     FieldSpec field = parameter.asField();
     ParameterSpec p = parameter.asSetterParameter();
+    // for a sorted property, copyOf sorts in natural order,
+    // also if the argument is sorted by a different comparator
     return CodeBlock.builder()
         .addStatement("this.$N = $N != null ? $T.copyOf($N) : null",
             field, p, collectionClassName(), p)
@@ -80,6 +158,17 @@ final class GuavaCollectionBase extends CollectionBase {
     return CodeBlock.of("$N.build()", field);
   }
 
+  @Override
+  Optional<CodeBlock> copyBlock(FieldSpec field) {
+    // ImmutableCollection.Builder has no clear method
+    return Optional.empty();
+  }
+
+  @Override
+  public Optional<CodeBlock> unboxedBuildBlock(FieldSpec field) {
+    return Optional.of(CodeBlock.of("$T.copyOf($N)", collectionClassName(), field));
+  }
+
   @Override
   public ParameterSpec setterParameter(RegularParameter parameter) {
     TypeName type = ParameterizedTypeName.get(setterParameterClassName,
@@ -0,0 +1,177 @@
+package net.autobuilder.core;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import javax.lang.model.type.TypeKind;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongUnaryOperator;
+import java.util.function.UnaryOperator;
+
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.STATIC;
+import static net.autobuilder.core.Util.joinCodeBlocks;
+import static net.autobuilder.core.Util.upcase;
+
+/**
+ * <p>Generates the *_Lenses class.
+ * For each property, it has a getter function,
+ * and functions that update the property.</p>
+ *
+ * <p>The update functions of different lenses classes
+ * can be nested, like {@code Outer_Lenses.inner(Inner_Lenses.setName("x"))}.
+ * Only the objects on the updated path are created;
+ * if the new value is the same, the input is returned as it is.</p>
+ */
+final class Lenses {
+
+  private final Model model;
+
+  private Lenses(Model model) {
+    this.model = model;
+  }
+
+  static Lenses create(Model model) {
+    return new Lenses(model);
+  }
+
+  TypeSpec define() {
+    TypeSpec.Builder spec = TypeSpec.classBuilder(model.lensesClass());
+    Set<String> setNames = new HashSet<>();
+    for (int i = 0; i < model.parameters.size(); i++) {
+      spec.addMethod(getterMethod(model.parameters.get(i).asRegularParameter()));
+      spec.addMethod(updateMethod(i));
+      spec.addMethod(setMethod(model.parameters.get(i).asRegularParameter(), setNames));
+    }
+    return spec.addModifiers(FINAL)
+        .addModifiers(model.maybePublic())
+        .addMethod(MethodSpec.constructorBuilder().addModifiers(PRIVATE).build())
+        .addJavadoc(Builder.generatedInfo())
+        .build();
+  }
+
+  private TypeName sourceType() {
+    return TypeName.get(model.sourceElement().asType());
+  }
+
+  private MethodSpec getterMethod(RegularParameter parameter) {
+    TypeName type = ParameterizedTypeName.get(ClassName.get(Function.class),
+        sourceType(), TypeName.get(parameter.type()).box());
+    return MethodSpec.methodBuilder(parameter.setterName)
+        .addJavadoc("Returns a function that reads {@code $L}.\n", parameter.getterName)
+        .addStatement("return $T::$L", sourceType(), parameter.getterName)
+        .addModifiers(STATIC)
+        .addModifiers(model.maybePublic())
+        .returns(type)
+        .build();
+  }
+
+  /**
+   * A function that applies {@code update} to the property.
+   */
+  private MethodSpec updateMethod(int parameterIndex) {
+    Parameter changed = model.parameters.get(parameterIndex);
+    RegularParameter parameter = changed.asRegularParameter();
+    TypeName type = TypeName.get(parameter.type());
+    ParameterSpec update = ParameterSpec.builder(operatorType(parameter), "update").build();
+    ParameterSpec value = ParameterSpec.builder(type, "value").build();
+    List<CodeBlock> invocation = new ArrayList<>(model.parameters.size());
+    for (int i = 0; i < model.parameters.size(); i++) {
+      invocation.add(i == parameterIndex ?
+          changed.witherValueBlock(value) :
+          CodeBlock.of("input.$L()", model.parameters.get(i).asRegularParameter().getterName));
+    }
+    CodeBlock code = CodeBlock.builder()
+        .add("return input -> {\n").indent()
+        .addStatement("$T old = input.$L()", type, parameter.getterName)
+        .addStatement("$T $N = $N.$L(old)", type, value, update, applyMethod(parameter))
+        .beginControlFlow("if ($L)", Builder.sameValue(parameter,
+            CodeBlock.of("old"), CodeBlock.of("$N", value), false))
+        .addStatement("return input")
+        .endControlFlow()
+        .add("return new $T(\n", model.avElement)
+        .add(invocation.stream().collect(joinCodeBlocks(",\n")))
+        .add(");\n")
+        .unindent().add("};\n")
+        .build();
+    return MethodSpec.methodBuilder(parameter.setterName)
+        .addJavadoc("Returns a function that updates {@code $L}.\n", parameter.getterName)
+        .addCode(code)
+        .addParameter(update)
+        .addModifiers(STATIC)
+        .addModifiers(model.maybePublic())
+        .returns(ParameterizedTypeName.get(ClassName.get(UnaryOperator.class), sourceType()))
+        .build();
+  }
+
+  /**
+   * A function that sets the property to {@code value},
+   * unless it is already equal.
+   *
+   * @param setNames the names of the previous set methods,
+   * the name of this method is added
+   */
+  private MethodSpec setMethod(RegularParameter parameter, Set<String> setNames) {
+    String setName = "set" + upcase(parameter.setterName);
+    // properties x and X
+    while (!setNames.add(setName)) {
+      setName = "_" + setName;
+    }
+    ParameterSpec value = ParameterSpec.builder(TypeName.get(parameter.type()), "value").build();
+    CodeBlock code = parameter.type().getKind().isPrimitive() ?
+        CodeBlock.of("return $L(old -> $N);\n", parameter.setterName, value) :
+        CodeBlock.of("return $L(old -> $T.equals(old, $N) ? old : $N);\n",
+            parameter.setterName, Objects.class, value, value);
+    return MethodSpec.methodBuilder(setName)
+        .addJavadoc("Returns a function that sets {@code $L},\n" +
+            "unless it is equal to {@code $N} already.\n", parameter.getterName, value)
+        .addCode(code)
+        .addParameter(value)
+        .addModifiers(STATIC)
+        .addModifiers(model.maybePublic())
+        .returns(ParameterizedTypeName.get(ClassName.get(UnaryOperator.class), sourceType()))
+        .build();
+  }
+
+  // primitive operators for the common primitives, so the value isn't boxed
+  private static TypeName operatorType(RegularParameter parameter) {
+    switch (parameter.type().getKind()) {
+      case INT:
+        return ClassName.get(IntUnaryOperator.class);
+      case LONG:
+        return ClassName.get(LongUnaryOperator.class);
+      case DOUBLE:
+        return ClassName.get(DoubleUnaryOperator.class);
+      default:
+        return ParameterizedTypeName.get(ClassName.get(UnaryOperator.class),
+            TypeName.get(parameter.type()).box());
+    }
+  }
+
+  private static String applyMethod(RegularParameter parameter) {
+    TypeKind kind = parameter.type().getKind();
+    switch (kind) {
+      case INT:
+        return "applyAsInt";
+      case LONG:
+        return "applyAsLong";
+      case DOUBLE:
+        return "applyAsDouble";
+      default:
+        return "apply";
+    }
+  }
+}
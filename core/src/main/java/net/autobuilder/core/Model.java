@@ -4,29 +4,72 @@ import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.ParameterizedTypeName;
 import com.squareup.javapoet.TypeName;
 import net.autobuilder.AutoBuilder;
+import net.autobuilder.AutoBuilder.Reuse;
 
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.ElementFilter;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalInt;
 
 import static javax.lang.model.element.Modifier.PUBLIC;
 import static net.autobuilder.core.AutoBuilderProcessor.rawType;
+import static net.autobuilder.core.Util.upcase;
 
 public final class Model {
 
   private static final String SUFFIX = "_Builder";
+  private static final String LENSES_SUFFIX = "_Lenses";
+
+  private static final int DEFAULT_MAX_RETAINED_CAPACITY = 1024;
 
   private final TypeElement sourceElement;
 
   // The type that auto-value has generated
   final TypeElement avElement;
 
-  // should gen code reuse builder instances?
-  final boolean reuse;
+  // where should gen code cache builder instances?
+  final Reuse reuse;
+
+  // number of cached builders per thread
+  final int reuseDepth;
+
+  // are reset and buildAndReset generated?
+  final boolean resettable;
+
+  // are transformAll and parallelTransformAll generated?
+  final boolean transformAll;
+
+  // should cleanup be limited to the properties that were written?
+  final boolean dirtyTracking;
+
+  // should toBuilder keep a reference to the input, rather than copy it?
+  final boolean lazyToBuilder;
+
+  // should build return the input of toBuilder, if nothing has changed?
+  final boolean returnSourceIfUnchanged;
+
+  // are the properties compared with equals?
+  final boolean compareWithEquals;
+
+  // should cleanup keep the java.util accumulators?
+  final boolean recycleAccumulators;
+
+  // largest accumulator that is kept
+  final int maxRetainedCapacity;
+
+  // should list properties be accumulated in a PersistentList?
+  final boolean persistentLists;
+
+  // expected number of elements, by accessor name
+  private final Map<String, Integer> capacities;
 
   final List<Parameter> parameters;
 
@@ -36,9 +79,31 @@ public final class Model {
       TypeElement sourceElement,
       TypeName generatedClass,
       TypeElement avElement,
-      boolean reuse,
+      Reuse reuse,
+      int reuseDepth,
+      boolean resettable,
+      boolean transformAll,
+      boolean dirtyTracking,
+      boolean lazyToBuilder,
+      boolean returnSourceIfUnchanged,
+      boolean compareWithEquals,
+      boolean recycleAccumulators,
+      int maxRetainedCapacity,
+      boolean persistentLists,
+      Map<String, Integer> capacities,
       List<Parameter> parameters) {
     this.reuse = reuse;
+    this.reuseDepth = reuseDepth;
+    this.resettable = resettable;
+    this.transformAll = transformAll;
+    this.dirtyTracking = dirtyTracking;
+    this.lazyToBuilder = lazyToBuilder;
+    this.returnSourceIfUnchanged = returnSourceIfUnchanged;
+    this.compareWithEquals = compareWithEquals;
+    this.recycleAccumulators = recycleAccumulators;
+    this.maxRetainedCapacity = maxRetainedCapacity;
+    this.persistentLists = persistentLists;
+    this.capacities = capacities;
     this.generatedClass = generatedClass;
     this.sourceElement = sourceElement;
     this.avElement = avElement;
@@ -73,10 +138,111 @@ public final class Model {
       throw new ValidationException("The class may not have type parameters.",
           sourceElement);
     }
-    boolean optionalRefTrackingBuilderClass =
-        sourceElement.getAnnotation(AutoBuilder.class).reuseBuilder();
+    Reuse reuse = reuse(sourceElement);
+    int reuseDepth = sourceElement.getAnnotation(AutoBuilder.class).reuseDepth();
+    if (reuseDepth < 1) {
+      throw new ValidationException("reuseDepth must be at least 1.", sourceElement);
+    }
+    if (reuseDepth != 1 && reuse != Reuse.THREAD_LOCAL) {
+      throw new ValidationException("reuseDepth requires reuse = THREAD_LOCAL.", sourceElement);
+    }
+    boolean lazyToBuilder = sourceElement.getAnnotation(AutoBuilder.class).lazyToBuilder();
+    // lazyToBuilder uses the dirty bits to tell which properties were changed
+    boolean dirtyTracking = sourceElement.getAnnotation(AutoBuilder.class).dirtyTracking() || lazyToBuilder;
+    boolean returnSourceIfUnchanged = sourceElement.getAnnotation(AutoBuilder.class).returnSourceIfUnchanged();
+    boolean compareWithEquals = sourceElement.getAnnotation(AutoBuilder.class).compareWithEquals();
+    if (compareWithEquals && !returnSourceIfUnchanged) {
+      throw new ValidationException("compareWithEquals requires returnSourceIfUnchanged = true.", sourceElement);
+    }
+    boolean recycleAccumulators = sourceElement.getAnnotation(AutoBuilder.class).recycleAccumulators();
+    int maxRetainedCapacity = sourceElement.getAnnotation(AutoBuilder.class).maxRetainedCapacity();
+    if (maxRetainedCapacity < 0) {
+      throw new ValidationException("maxRetainedCapacity must not be negative.", sourceElement);
+    }
+    if (maxRetainedCapacity != DEFAULT_MAX_RETAINED_CAPACITY && !recycleAccumulators) {
+      throw new ValidationException("maxRetainedCapacity requires recycleAccumulators = true.", sourceElement);
+    }
+    boolean persistentLists = sourceElement.getAnnotation(AutoBuilder.class).persistentLists();
+    if (sourceElement.getAnnotation(AutoBuilder.class).jdkImmutableCollections() && !hasJdkCopyOf()) {
+      throw new ValidationException("jdkImmutableCollections requires Java 10 or later.", sourceElement);
+    }
+    Map<String, Integer> capacities = capacities(sourceElement, parameters);
+    checkDefensiveCopies(sourceElement, parameters);
     return new Model(sourceElement, generatedClass, avElement,
-        optionalRefTrackingBuilderClass, parameters);
+        reuse, reuseDepth, resettable(sourceElement.getAnnotation(AutoBuilder.class)),
+        sourceElement.getAnnotation(AutoBuilder.class).transformAll(),
+        dirtyTracking, lazyToBuilder,
+        returnSourceIfUnchanged, compareWithEquals, recycleAccumulators, maxRetainedCapacity,
+        persistentLists, capacities, parameters);
+  }
+
+  // List.copyOf was added in Java 10
+  private static boolean hasJdkCopyOf() {
+    return ElementFilter.methodsIn(TypeTool.get().getTypeElement(List.class).getEnclosedElements()).stream()
+        .anyMatch(method -> method.getSimpleName().contentEquals("copyOf"));
+  }
+
+  private static Map<String, Integer> capacities(TypeElement sourceElement, List<Parameter> parameters) {
+    Map<String, Integer> result = new HashMap<>();
+    for (ExecutableElement method : ElementFilter.methodsIn(sourceElement.getEnclosedElements())) {
+      AutoBuilder.Capacity capacity = method.getAnnotation(AutoBuilder.Capacity.class);
+      if (capacity == null) {
+        continue;
+      }
+      if (capacity.value() < 0) {
+        throw new ValidationException("Capacity must not be negative.", method);
+      }
+      String getterName = method.getSimpleName().toString();
+      boolean accumulated = parameters.stream()
+          .filter(parameter -> parameter.asRegularParameter().getterName.equals(getterName))
+          .anyMatch(parameter -> parameter.extraField().isPresent());
+      if (!accumulated) {
+        throw new ValidationException("Capacity can only be used on a collection property.", method);
+      }
+      result.put(getterName, capacity.value());
+    }
+    return result;
+  }
+
+  private static void checkDefensiveCopies(TypeElement sourceElement, List<Parameter> parameters) {
+    for (ExecutableElement method : ElementFilter.methodsIn(sourceElement.getEnclosedElements())) {
+      if (method.getAnnotation(AutoBuilder.DefensiveCopy.class) == null) {
+        continue;
+      }
+      String getterName = method.getSimpleName().toString();
+      boolean array = parameters.stream()
+          .filter(parameter -> parameter.asRegularParameter().getterName.equals(getterName))
+          .anyMatch(parameter -> parameter instanceof ArrayParameter);
+      if (!array && method.getReturnType().getKind() == TypeKind.ARRAY &&
+          !sourceElement.getAnnotation(AutoBuilder.class).arrayAccumulators()) {
+        throw new ValidationException("DefensiveCopy requires arrayAccumulators = true.", method);
+      }
+      if (!array) {
+        throw new ValidationException("DefensiveCopy can only be used on an array property.", method);
+      }
+    }
+  }
+
+  // the reuse modes, dirtyTracking and transformAll need the reset code anyway
+  static boolean resettable(AutoBuilder annotation) {
+    return annotation.resettable() ||
+        annotation.transformAll() ||
+        annotation.dirtyTracking() ||
+        annotation.reuseBuilder() ||
+        annotation.reuse() != Reuse.NONE;
+  }
+
+  private static Reuse reuse(TypeElement sourceElement) {
+    AutoBuilder annotation = sourceElement.getAnnotation(AutoBuilder.class);
+    if (!annotation.reuseBuilder()) {
+      return annotation.reuse();
+    }
+    if (annotation.reuse() != Reuse.NONE && annotation.reuse() != Reuse.THREAD_LOCAL) {
+      throw new ValidationException(
+          "reuseBuilder = true cannot be combined with reuse = " + annotation.reuse() + ".",
+          sourceElement);
+    }
+    return Reuse.THREAD_LOCAL;
   }
 
   static ExecutableElement getAvConstructor(TypeElement sourceElement, TypeElement avElement) {
@@ -113,6 +279,11 @@ public final class Model {
     return new Modifier[]{};
   }
 
+  OptionalInt capacity(RegularParameter parameter) {
+    Integer capacity = capacities.get(parameter.getterName);
+    return capacity == null ? OptionalInt.empty() : OptionalInt.of(capacity);
+  }
+
   TypeElement sourceElement() {
     return sourceElement;
   }
@@ -122,6 +293,43 @@ public final class Model {
         .nestedClass("PerThreadFactory");
   }
 
+  ClassName stripedFactoryClass() {
+    return rawType(generatedClass)
+        .nestedClass("StripedFactory");
+  }
+
+  ClassName transformTaskClass() {
+    String name = "TransformTask";
+    while (isNestedClassNameCollision(name)) {
+      name = "_" + name;
+    }
+    return rawType(generatedClass).nestedClass(name);
+  }
+
+  ClassName lensesClass() {
+    ClassName generated = rawType(generatedClass);
+    String name = generated.simpleName();
+    return generated.peerClass(name.substring(0, name.length() - SUFFIX.length()) + LENSES_SUFFIX);
+  }
+
+  ClassName persistentListClass() {
+    return persistentListClass(generatedClass);
+  }
+
+  static ClassName persistentListClass(TypeName generatedClass) {
+    return rawType(generatedClass)
+        .nestedClass("PersistentList");
+  }
+
+  ClassName primitiveListClass(TypeKind kind) {
+    return primitiveListClass(generatedClass, kind);
+  }
+
+  static ClassName primitiveListClass(TypeName generatedClass, TypeKind kind) {
+    return rawType(generatedClass)
+        .nestedClass(upcase(kind.name().toLowerCase(Locale.ROOT)) + "List");
+  }
+
   String uniqueFieldName(String baseName) {
     while (isFieldNameCollision(baseName)) {
       baseName = "_" + baseName;
@@ -129,6 +337,13 @@ public final class Model {
     return baseName;
   }
 
+  String uniqueMethodName(String baseName) {
+    while (isMethodNameCollision(baseName)) {
+      baseName = "_" + baseName;
+    }
+    return baseName;
+  }
+
   String uniqueSetterMethodName(String baseName, TypeMirror paramType) {
     while (isSetterMethodNameCollision(baseName, paramType)) {
       baseName = "_" + baseName;
@@ -146,6 +361,31 @@ public final class Model {
     return false;
   }
 
+  // any parameter type, for the methods that are not setters
+  private boolean isMethodNameCollision(
+      String methodName) {
+    for (Parameter parameter : parameters) {
+      if (parameter.asRegularParameter().setterName.equals(methodName)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // the source class and its member types are referenced by simple name
+  private boolean isNestedClassNameCollision(
+      String className) {
+    if (sourceElement.getSimpleName().contentEquals(className)) {
+      return true;
+    }
+    for (TypeElement type : ElementFilter.typesIn(sourceElement.getEnclosedElements())) {
+      if (type.getSimpleName().contentEquals(className)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   boolean isSetterMethodNameCollision(String methodName, TypeMirror paramType) {
     for (Parameter parameter : parameters) {
       if (parameter.asRegularParameter().setterName.equals(methodName)) {
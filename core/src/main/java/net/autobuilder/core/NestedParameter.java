@@ -0,0 +1,226 @@
+package net.autobuilder.core;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.WildcardTypeName;
+import net.autobuilder.AutoBuilder;
+
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static net.autobuilder.core.Util.downcase;
+import static net.autobuilder.core.Util.upcase;
+
+/**
+ * A property whose type has an {@link AutoBuilder} annotation itself.
+ * The property can be changed through a builder of that type,
+ * which is created when it is first requested,
+ * and built in {@code build()}.
+ */
+public final class NestedParameter extends Parameter {
+
+  public final RegularParameter parameter;
+
+  // the builder of the property type
+  private final ClassName childBuilderClass;
+
+  // does the child builder have reset methods?
+  private final boolean childResettable;
+
+  private NestedParameter(RegularParameter parameter, ClassName childBuilderClass, boolean childResettable) {
+    this.parameter = parameter;
+    this.childBuilderClass = childBuilderClass;
+    this.childResettable = childResettable;
+  }
+
+  /**
+   * @return a nested parameter, if the type of this parameter
+   * has a builder that can be used from here, or else {@link Optional#empty()}
+   */
+  static Optional<Parameter> maybeCreate(RegularParameter parameter) {
+    TypeMirror type = parameter.variableElement.asType();
+    if (type.getKind() != TypeKind.DECLARED) {
+      return Optional.empty();
+    }
+    Optional<TypeElement> opt = TypeTool.get().getTypeElement(type);
+    if (!opt.isPresent()) {
+      return Optional.empty();
+    }
+    TypeElement child = opt.get();
+    AutoBuilder annotation = child.getAnnotation(AutoBuilder.class);
+    if (annotation == null || !child.getTypeParameters().isEmpty()) {
+      return Optional.empty();
+    }
+    // a child builder with reuse would be given back when it is built
+    if (annotation.reuse() != AutoBuilder.Reuse.NONE || annotation.reuseBuilder()) {
+      return Optional.empty();
+    }
+    ClassName childBuilderClass = (ClassName) Model.generatedClass(child);
+    boolean samePackage = childBuilderClass.packageName()
+        .equals(((ClassName) parameter.generatedClass).packageName());
+    if (!samePackage && !child.getModifiers().contains(Modifier.PUBLIC)) {
+      return Optional.empty();
+    }
+    return Optional.of(new NestedParameter(parameter, childBuilderClass, Model.resettable(annotation)));
+  }
+
+  NestedParameter withParameter(RegularParameter parameter) {
+    return new NestedParameter(parameter, childBuilderClass, childResettable);
+  }
+
+  String builderFieldName() {
+    return downcase(parameter.setterName) + "Builder";
+  }
+
+  String spareFieldName() {
+    return downcase(parameter.setterName) + "BuilderSpare";
+  }
+
+  public FieldSpec asBuilderField() {
+    return FieldSpec.builder(childBuilderClass, builderFieldName())
+        .addModifiers(PRIVATE).build();
+  }
+
+  // a reset child builder, which is kept when the parent is reused
+  private FieldSpec spareField() {
+    return FieldSpec.builder(childBuilderClass, spareFieldName())
+        .addModifiers(PRIVATE).build();
+  }
+
+  // the child builder is kept if it can be reset
+  private boolean recyclesChild(Model model) {
+    return model.reuse != AutoBuilder.Reuse.NONE && childResettable;
+  }
+
+  @Override
+  List<FieldSpec> additionalFields(Model model) {
+    if (!recyclesChild(model)) {
+      return Collections.emptyList();
+    }
+    return Collections.singletonList(spareField());
+  }
+
+  /**
+   * The code inside the setter.
+   * A child builder that was in use is discarded.
+   */
+  public CodeBlock setterAssignmentCode(Model model) {
+    CodeBlock.Builder code = CodeBlock.builder()
+        .addStatement("this.$N = $N", parameter.asField(), parameter.asSetterParameter());
+    return code.add(releaseChild(model)).build();
+  }
+
+  private CodeBlock releaseChild(Model model) {
+    FieldSpec builderField = asBuilderField();
+    if (!recyclesChild(model)) {
+      return CodeBlock.builder().addStatement("this.$N = null", builderField).build();
+    }
+    return CodeBlock.builder()
+        .beginControlFlow("if (this.$N != null)", builderField)
+        .addStatement("this.$N = this.$N.reset()", spareField(), builderField)
+        .addStatement("this.$N = null", builderField)
+        .endControlFlow()
+        .build();
+  }
+
+  /**
+   * The property value in {@code build()}.
+   */
+  public CodeBlock buildBlock() {
+    FieldSpec builderField = asBuilderField();
+    return CodeBlock.of("$N != null ? $N.build() : $N",
+        builderField, builderField, parameter.asField());
+  }
+
+  /**
+   * @return a method that returns the child builder,
+   * which starts out with the current value of the property
+   */
+  public MethodSpec builderMethod(Model model) {
+    FieldSpec builderField = asBuilderField();
+    FieldSpec field = parameter.asField();
+    CodeBlock.Builder code = CodeBlock.builder()
+        .beginControlFlow("if (this.$N == null)", builderField);
+    if (recyclesChild(model)) {
+      FieldSpec spare = spareField();
+      code.beginControlFlow("if (this.$N != null)", spare)
+          .addStatement("this.$N = this.$N != null ? this.$N.reset(this.$N) : this.$N",
+              builderField, field, spare, field, spare)
+          .addStatement("this.$N = null", spare)
+          .nextControlFlow("else");
+      newChild(code);
+      code.endControlFlow();
+    } else {
+      newChild(code);
+    }
+    code.addStatement("this.$N = null", field)
+        .endControlFlow();
+    return MethodSpec.methodBuilder(builderFieldName())
+        .addJavadoc("Returns a builder for {@code $L}, which is built in {@code build()}.\n" +
+            "Calling the setter discards it.\n", parameter.getterName)
+        .addCode(code.build())
+        .addStatement("return this.$N", builderField)
+        .addModifiers(FINAL)
+        .addModifiers(parameter.maybePublic())
+        .returns(childBuilderClass)
+        .build();
+  }
+
+  /**
+   * @return a method that applies {@code edits} to the child builder;
+   * like {@code create} and {@code update}, but the child builder
+   * is bounded by the scope of this builder
+   */
+  public MethodSpec updateMethod(Model model) {
+    ParameterSpec edits = ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Consumer.class),
+        WildcardTypeName.supertypeOf(childBuilderClass)), "edits").build();
+    String methodName = model.uniqueSetterMethodName("update" + upcase(parameter.setterName),
+        TypeTool.get().getTypeElement(Consumer.class).asType());
+    return MethodSpec.methodBuilder(methodName)
+        .addJavadoc("Applies {@code $N} to the builder for {@code $L}, which is built in {@code build()}.\n" +
+            "{@code $N} must not keep the builder, or call {@code build()}.\n",
+            edits, parameter.getterName, edits)
+        .addStatement("$N.accept($N())", edits, builderFieldName())
+        .addStatement("return this")
+        .addParameter(edits)
+        .addModifiers(FINAL)
+        .addModifiers(parameter.maybePublic())
+        .returns(parameter.generatedClass)
+        .build();
+  }
+
+  private void newChild(CodeBlock.Builder code) {
+    FieldSpec builderField = asBuilderField();
+    FieldSpec field = parameter.asField();
+    code.addStatement("this.$N = this.$N != null ? $T.toBuilder(this.$N) : $T.builder()",
+        builderField, field, childBuilderClass, field, childBuilderClass);
+  }
+
+  @Override
+  CodeBlock cleanupCode(Model model) {
+    if (!recyclesChild(model)) {
+      return super.cleanupCode(model);
+    }
+    return CodeBlock.builder()
+        .addStatement("$N = null", parameter.asField())
+        .add(releaseChild(model))
+        .build();
+  }
+
+  @Override
+  <R, P> R accept(ParamCases<R, P> cases, P p) {
+    return cases.nestedish(this, p);
+  }
+}
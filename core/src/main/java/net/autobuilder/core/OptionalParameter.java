@@ -11,13 +11,24 @@ import javax.lang.model.element.TypeElement;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.OptionalDouble;
 import java.util.OptionalInt;
 import java.util.OptionalLong;
 
 import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static net.autobuilder.core.Util.downcase;
+import static net.autobuilder.core.Util.upcase;
 
+/**
+ * An {@code Optional}, {@code OptionalInt}, {@code OptionalLong} or {@code OptionalDouble}
+ * property. The convenience setter stores the value unwrapped,
+ * and {@code build()} wraps it.
+ */
 public final class OptionalParameter extends Parameter {
 
   private static final ClassName OPTIONAL_CLASS = ClassName.get(Optional.class);
@@ -128,11 +139,12 @@ public final class OptionalParameter extends Parameter {
     ParameterSpec p = ParameterSpec.builder(TypeName.get(wrapped),
         parameter.setterName).build();
     CodeBlock.Builder block = CodeBlock.builder();
-    if (wrapper.equals(OPTIONAL_CLASS)) {
-      block.addStatement("this.$N = $T.$L($N)", f, wrapper, of, p);
-    } else {
-      block.addStatement("this.$N = $T.of($N)", f, wrapper, p);
+    // store the value unwrapped, build() wraps it
+    block.addStatement("this.$N = $N", valueField(wrapped), p);
+    if (!wrapper.equals(OPTIONAL_CLASS)) {
+      block.addStatement("this.$N = true", presentField());
     }
+    block.addStatement("this.$N = null", f);
     return MethodSpec.methodBuilder(parameter.setterName)
         .addCode(block.build())
         .addStatement("return this")
@@ -143,6 +155,132 @@ public final class OptionalParameter extends Parameter {
         .build();
   }
 
+  private FieldSpec valueField(TypeMirror wrapped) {
+    return FieldSpec.builder(TypeName.get(wrapped), valueFieldName())
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  // only for the primitive optionals, like OptionalInt
+  private FieldSpec presentField() {
+    return FieldSpec.builder(TypeName.BOOLEAN, presentFieldName())
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  String valueFieldName() {
+    return downcase(parameter.setterName) + "Value";
+  }
+
+  String presentFieldName() {
+    return downcase(parameter.setterName) + "Present";
+  }
+
+  /**
+   * @return the names of the fields that hold the unwrapped value
+   */
+  List<String> unwrappedFieldNames() {
+    if (!wrapped.isPresent()) {
+      return Collections.emptyList();
+    }
+    if (wrapper.equals(OPTIONAL_CLASS)) {
+      return Collections.singletonList(valueFieldName());
+    }
+    return Arrays.asList(valueFieldName(), presentFieldName());
+  }
+
+  @Override
+  List<FieldSpec> additionalFields(Model model) {
+    if (!wrapped.isPresent()) {
+      return Collections.emptyList();
+    }
+    if (wrapper.equals(OPTIONAL_CLASS)) {
+      return Collections.singletonList(valueField(wrapped.get()));
+    }
+    return Arrays.asList(valueField(wrapped.get()), presentField());
+  }
+
+  /**
+   * The code inside the setter that takes the optional.
+   * The instance is kept, and the unwrapped value is forgotten.
+   */
+  public CodeBlock setterAssignmentCode() {
+    CodeBlock.Builder code = CodeBlock.builder()
+        .addStatement("this.$N = $N", parameter.asField(), asSetterParameter());
+    wrapped.ifPresent(type -> {
+      if (wrapper.equals(OPTIONAL_CLASS)) {
+        code.addStatement("this.$N = null", valueField(type));
+      } else {
+        code.addStatement("this.$N = false", presentField());
+      }
+    });
+    return code.build();
+  }
+
+  /**
+   * The property value in {@code build()}.
+   * An optional that was passed to the setter is used as it is.
+   */
+  public CodeBlock buildBlock() {
+    FieldSpec field = parameter.asField();
+    if (!wrapped.isPresent()) {
+      return CodeBlock.of("$N != null ? $N : $T.empty()",
+          field, field, wrapper);
+    }
+    FieldSpec value = valueField(wrapped.get());
+    if (wrapper.equals(OPTIONAL_CLASS)) {
+      return CodeBlock.of("$N != null ? $N : $T.$L($N)",
+          field, field, wrapper, of, value);
+    }
+    return CodeBlock.of("$N != null ? $N : $N ? $T.of($N) : $T.empty()",
+        field, field, presentField(), wrapper, value, wrapper);
+  }
+
+  /**
+   * Compares the unwrapped value, so that no optional
+   * is created just for the comparison.
+   */
+  @Override
+  CodeBlock sameValueBlock(Model model, CodeBlock current) {
+    if (!wrapped.isPresent()) {
+      return super.sameValueBlock(model, current);
+    }
+    FieldSpec field = parameter.asField();
+    FieldSpec value = valueField(wrapped.get());
+    CodeBlock sameOptional = Builder.sameValue(parameter, current,
+        CodeBlock.of("$N", field), model.compareWithEquals);
+    if (wrapper.equals(OPTIONAL_CLASS)) {
+      // the empty optional is a singleton
+      return CodeBlock.of("($N != null ? $L : $L)", field, sameOptional,
+          Builder.sameValue(wrapped.get(), CodeBlock.of("$L.orElse(null)", current),
+              CodeBlock.of("$N", value), model.compareWithEquals));
+    }
+    CodeBlock getter = CodeBlock.of("$L.getAs$L()", current, upcase(wrapped.get().toString()));
+    return CodeBlock.of("($N != null ? $L : $N ? $L.isPresent() && $L : !$L.isPresent())",
+        field, sameOptional, presentField(), current,
+        Builder.sameValue(wrapped.get(), getter, CodeBlock.of("$N", value), false),
+        current);
+  }
+
+  @Override
+  CodeBlock witherValueBlock(ParameterSpec value) {
+    return CodeBlock.of("$N != null ? $N : $T.empty()", value, value, wrapper);
+  }
+
+  @Override
+  CodeBlock cleanupCode(Model model) {
+    CodeBlock.Builder code = super.cleanupCode(model).toBuilder();
+    wrapped.ifPresent(type -> {
+      if (wrapper.equals(OPTIONAL_CLASS)) {
+        code.addStatement("$N = null", valueField(type));
+      } else {
+        code.addStatement("$N = 0", valueField(type))
+            .addStatement("$N = false", presentField());
+      }
+    });
+    return code.build();
+  }
+
   OptionalParameter withParameter(RegularParameter parameter) {
     return new OptionalParameter(parameter, wrapper, wrapped, of);
   }
@@ -7,4 +7,8 @@ public interface ParamCases<R, P> {
   R collectionish(CollectionParameter parameter, P p);
 
   R optionalish(OptionalParameter parameter, P p);
+
+  R arrayish(ArrayParameter parameter, P p);
+
+  R nestedish(NestedParameter parameter, P p);
 }
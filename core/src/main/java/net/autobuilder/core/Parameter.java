@@ -11,6 +11,8 @@ import net.autobuilder.core.cases.ExtraFieldCases;
 import net.autobuilder.core.cases.ExtraMethodsCases;
 import net.autobuilder.core.cases.ExtractCases;
 
+import javax.lang.model.type.TypeKind;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
@@ -47,19 +49,19 @@ public abstract class Parameter {
   /**
    * Creates the code inside one of the builder's setter methods.
    */
-  CodeBlock codeInsideSetter() {
-    return CODE_INSIDE_SETTER.apply(this);
+  CodeBlock codeInsideSetter(Model model) {
+    return accept(CODE_INSIDE_SETTER, model);
   }
 
-  private static final Function<Parameter, CodeBlock> CODE_INSIDE_SETTER =
-      asFunction(new CodeInsideSetterCases());
+  private static final ParamCases<CodeBlock, Model> CODE_INSIDE_SETTER =
+      new CodeInsideSetterCases();
 
-  final CodeBlock extract() {
-    return EXTRACT.apply(this);
+  final CodeBlock extract(Model model) {
+    return accept(EXTRACT, model);
   }
 
-  private static final Function<Parameter, CodeBlock> EXTRACT =
-      asFunction(new ExtractCases());
+  private static final ParamCases<CodeBlock, Model> EXTRACT =
+      new ExtractCases();
 
   final Optional<FieldSpec> extraField() {
     return EXTRA_FIELD.apply(this);
@@ -75,14 +77,57 @@ public abstract class Parameter {
   private static final ParamCases<List<MethodSpec>, Model> EXTRA_METHODS =
       new ExtraMethodsCases();
 
+  /**
+   * The property value that is passed to the constructor by a {@code with} method.
+   */
+  CodeBlock witherValueBlock(ParameterSpec value) {
+    return CodeBlock.of("$N", value);
+  }
+
+  /**
+   * Fields of the builder that this parameter needs,
+   * in addition to the field of the property type and the accumulator.
+   */
+  List<FieldSpec> additionalFields(Model model) {
+    return Collections.emptyList();
+  }
+
+  /**
+   * If present, the accumulator stores primitives of this kind.
+   */
+  Optional<TypeKind> unboxedKind() {
+    return Optional.empty();
+  }
+
+  /**
+   * A condition that is true if the accumulator holds no elements,
+   * or empty if this parameter doesn't have an accumulator.
+   */
+  Optional<CodeBlock> accumulatorUnused(Model model) {
+    return extraField().map(field -> CodeBlock.of("$N == null", field));
+  }
+
+  /**
+   * A condition that is true if {@code build()} would pass
+   * the same value as {@code current} to the constructor.
+   */
+  CodeBlock sameValueBlock(Model model, CodeBlock current) {
+    return Builder.sameValue(asRegularParameter(), current, extract(model), model.compareWithEquals);
+  }
+
   /**
    * Code that de-initialises the builder at the end of the {@code build()} method.
    * This will only be called if the builder is reused.
    */
-  CodeBlock cleanupCode() {
+  CodeBlock cleanupCode(Model model) {
     RegularParameter param = asRegularParameter();
     CodeBlock.Builder builder = CodeBlock.builder();
-    if (!param.variableElement.asType().getKind().isPrimitive()) {
+    TypeKind kind = param.variableElement.asType().getKind();
+    if (kind == TypeKind.BOOLEAN) {
+      builder.addStatement("$N = false", param.asField());
+    } else if (kind.isPrimitive()) {
+      builder.addStatement("$N = 0", param.asField());
+    } else {
       builder.addStatement("$N = null", param.asField());
     }
     extraField().ifPresent(field ->
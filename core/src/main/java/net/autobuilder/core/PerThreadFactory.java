@@ -1,5 +1,6 @@
 package net.autobuilder.core;
 
+import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
@@ -7,38 +8,85 @@ import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
 
+import java.util.concurrent.atomic.LongAdder;
+
 import static javax.lang.model.element.Modifier.FINAL;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.STATIC;
 
+/**
+ * Generates the per-thread builder cache for {@code Reuse.THREAD_LOCAL}.
+ * Each thread has a small stack of builders, so that stacked builder calls,
+ * up to {@code reuseDepth}, can reuse builder instances too.
+ *
+ * <p>Each time a builder is handed out, it gets a new lease number.
+ * If all builders are in use, the one with the oldest lease is evicted
+ * from the cache, and replaced by a new one.
+ * This is a heuristic: at this point, there is no way to tell
+ * if the evicted builder was abandoned without calling {@code build()},
+ * or if it is still in use, because builder calls are stacked deeper than {@code reuseDepth}.
+ * An evicted builder keeps working, it is just not cached anymore.
+ * If it calls {@code build()} later, it is counted as an overflow.
+ * The evictions that are not followed by {@code build()} are counted as abandoned.</p>
+ */
 final class PerThreadFactory {
 
   private final Model model;
   private final MethodSpec initMethod;
-  private final FieldSpec builder;
+  private final FieldSpec builders;
+  private final FieldSpec leases;
+  private final FieldSpec generation;
+  private final FieldSpec evictions;
+  private final FieldSpec overflows;
   private final FieldSpec inUse;
+  private final FieldSpec evicted;
 
   private PerThreadFactory(
       Model model,
       MethodSpec initMethod,
-      FieldSpec inUse) {
+      FieldSpec inUse,
+      FieldSpec evicted) {
     this.model = model;
     this.initMethod = initMethod;
-    this.builder = FieldSpec.builder(model.generatedClass, "builder")
+    this.builders = FieldSpec.builder(ArrayTypeName.of(model.generatedClass), "builders")
+        .addModifiers(PRIVATE, FINAL)
+        .initializer("new $T[$L]", model.generatedClass, model.reuseDepth)
+        .build();
+    this.leases = FieldSpec.builder(long[].class, "leases")
+        .addModifiers(PRIVATE, FINAL)
+        .initializer("new long[$L]", model.reuseDepth)
+        .build();
+    this.generation = FieldSpec.builder(TypeName.LONG, "generation")
+        .addModifiers(PRIVATE)
+        .build();
+    // LongAdders, so that threads don't contend on a single counter
+    this.evictions = FieldSpec.builder(LongAdder.class, "EVICTIONS")
+        .addModifiers(PRIVATE, STATIC, FINAL)
+        .initializer("new $T()", LongAdder.class)
+        .build();
+    this.overflows = FieldSpec.builder(LongAdder.class, "OVERFLOWS")
+        .addModifiers(PRIVATE, STATIC, FINAL)
+        .initializer("new $T()", LongAdder.class)
         .build();
     this.inUse = inUse;
+    this.evicted = evicted;
   }
 
   static PerThreadFactory create(
       Model model,
       MethodSpec initMethod,
-      FieldSpec inUse) {
-    return new PerThreadFactory(model, initMethod, inUse);
+      FieldSpec inUse,
+      FieldSpec evicted) {
+    return new PerThreadFactory(model, initMethod, inUse, evicted);
   }
 
   TypeSpec define() {
     return TypeSpec.classBuilder(model.perThreadFactoryClass())
-        .addField(builder)
+        .addField(evictions)
+        .addField(overflows)
+        .addField(builders)
+        .addField(leases)
+        .addField(generation)
         .addMethod(builderMethod())
         .addMethod(builderMethodWithoutParam())
         .addModifiers(PRIVATE, STATIC, FINAL)
@@ -47,12 +95,10 @@ final class PerThreadFactory {
 
   private MethodSpec builderMethod() {
     ParameterSpec input = ParameterSpec.builder(TypeName.get(model.sourceElement().asType()), "input").build();
+    ParameterSpec builder = ParameterSpec.builder(model.generatedClass, "builder").build();
     CodeBlock.Builder block = CodeBlock.builder()
-        .beginControlFlow("if ($N == null || $N.$N)", builder, builder, inUse)
-        .addStatement("$N = new $T()", builder, model.generatedClass)
-        .endControlFlow()
+        .addStatement("$T $N = builder()", builder.type, builder)
         .addStatement("$N.$N($N)", builder, initMethod, input)
-        .addStatement("$N.$N = $L", builder, inUse, true)
         .addStatement("return $N", builder);
     return MethodSpec.methodBuilder("builder")
         .addParameter(input)
@@ -62,10 +108,31 @@ final class PerThreadFactory {
   }
 
   private MethodSpec builderMethodWithoutParam() {
+    ParameterSpec builder = ParameterSpec.builder(model.generatedClass, "builder").build();
+    ParameterSpec oldest = ParameterSpec.builder(TypeName.INT, "oldest").build();
     CodeBlock.Builder block = CodeBlock.builder()
-        .beginControlFlow("if ($N == null || $N.$N)", builder, builder, inUse)
+        .addStatement("int $N = 0", oldest)
+        .beginControlFlow("for (int i = 0; i < $N.length; i++)", builders)
+        .addStatement("$T $N = $N[i]", builder.type, builder, builders)
+        .beginControlFlow("if ($N == null)", builder)
         .addStatement("$N = new $T()", builder, model.generatedClass)
+        .addStatement("$N[i] = $N", builders, builder)
+        .endControlFlow()
+        .beginControlFlow("if (!$N.$N)", builder, inUse)
+        .addStatement("$N.$N = $L", builder, inUse, true)
+        .addStatement("$N[i] = ++$N", leases, generation)
+        .addStatement("return $N", builder)
         .endControlFlow()
+        .beginControlFlow("if ($N[i] < $N[$N])", leases, leases, oldest)
+        .addStatement("$N = i", oldest)
+        .endControlFlow()
+        .endControlFlow()
+        .add("// all builders are in use, evict the one with the oldest lease\n")
+        .addStatement("$N[$N].$N = $L", builders, oldest, evicted, true)
+        .addStatement("$N.increment()", evictions)
+        .addStatement("$T $N = new $T()", builder.type, builder, model.generatedClass)
+        .addStatement("$N[$N] = $N", builders, oldest, builder)
+        .addStatement("$N[$N] = ++$N", leases, oldest, generation)
         .addStatement("$N.$N = $L", builder, inUse, true)
         .addStatement("return $N", builder);
     return MethodSpec.methodBuilder("builder")
@@ -73,4 +140,51 @@ final class PerThreadFactory {
         .returns(model.generatedClass)
         .build();
   }
+
+  /**
+   * Counts an overflow if {@code builder} was evicted while it was in use.
+   * This runs when the builder is given back.
+   */
+  CodeBlock releaseBlock(CodeBlock builder) {
+    return CodeBlock.builder()
+        .beginControlFlow("if ($L.$N)", builder, evicted)
+        .addStatement("$L.$N = $L", builder, evicted, false)
+        .addStatement("$T.$N.increment()", model.perThreadFactoryClass(), overflows)
+        .endControlFlow()
+        .build();
+  }
+
+  /**
+   * Exposes the number of evicted builders that did not call {@code build()} (yet).
+   */
+  MethodSpec abandonedMethod() {
+    return MethodSpec.methodBuilder("abandonedBuilders")
+        .addJavadoc("Returns the number of times that a cached builder was evicted,\n" +
+            "because all cached builders of the current thread were in use,\n" +
+            "and the evicted builder did not call {@code build()} afterwards.\n" +
+            "These builders were probably abandoned without calling {@code build()},\n" +
+            "but the count also includes evicted builders that are still in use.\n")
+        .addStatement("return $T.$N.sum() - $T.$N.sum()",
+            model.perThreadFactoryClass(), evictions, model.perThreadFactoryClass(), overflows)
+        .returns(TypeName.LONG)
+        .addModifiers(STATIC)
+        .addModifiers(model.maybePublic())
+        .build();
+  }
+
+  /**
+   * Exposes the number of evicted builders that turned out to be still in use.
+   */
+  MethodSpec overflowMethod() {
+    return MethodSpec.methodBuilder("overflowBuilders")
+        .addJavadoc("Returns the number of times that a cached builder was evicted,\n" +
+            "because all cached builders of the current thread were in use,\n" +
+            "and the evicted builder called {@code build()} afterwards.\n" +
+            "This happens if builder calls are stacked deeper than {@code reuseDepth}.\n")
+        .addStatement("return $T.$N.sum()", model.perThreadFactoryClass(), overflows)
+        .returns(TypeName.LONG)
+        .addModifiers(STATIC)
+        .addModifiers(model.maybePublic())
+        .build();
+  }
 }
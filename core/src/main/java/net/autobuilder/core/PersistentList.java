@@ -0,0 +1,221 @@
+package net.autobuilder.core;
+
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+import com.squareup.javapoet.WildcardTypeName;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * Generates the list that is used for {@code java.util.List} properties
+ * if {@code persistentLists = true}.
+ * Appending to this list returns a new list, which shares
+ * the backing array with the old one.
+ *
+ * <p>The backing array has some room at the end.
+ * The first list that appends to the array claims the next slots,
+ * so it can write there without copying.
+ * Another list that shares the same array, but has fewer elements,
+ * has to copy the array when it appends.
+ * The claim is an atomic counter, because the old list
+ * may be read by different threads.</p>
+ */
+final class PersistentList {
+
+  // initial capacity, when there are no elements yet
+  static final int DEFAULT_CAPACITY = 10;
+
+  private final Model model;
+  private final TypeVariableName e;
+  private final TypeName type;
+  private final FieldSpec elements;
+  private final FieldSpec size;
+  private final FieldSpec used;
+
+  private PersistentList(Model model) {
+    this.model = model;
+    this.e = TypeVariableName.get("E");
+    this.type = ParameterizedTypeName.get(model.persistentListClass(), e);
+    this.elements = FieldSpec.builder(Object[].class, "elements")
+        .addModifiers(PRIVATE, FINAL)
+        .build();
+    this.size = FieldSpec.builder(TypeName.INT, "size")
+        .addModifiers(PRIVATE, FINAL)
+        .build();
+    this.used = FieldSpec.builder(AtomicInteger.class, "used")
+        .addModifiers(PRIVATE, FINAL)
+        .build();
+  }
+
+  static PersistentList create(Model model) {
+    return new PersistentList(model);
+  }
+
+  TypeSpec define() {
+    return TypeSpec.classBuilder(model.persistentListClass())
+        .addTypeVariable(e)
+        .superclass(ParameterizedTypeName.get(ClassName.get(AbstractList.class), e))
+        .addSuperinterface(RandomAccess.class)
+        .addField(elements)
+        .addField(size)
+        .addField(used)
+        .addMethod(constructor())
+        .addMethod(ofMethod())
+        .addMethod(appendMethod())
+        .addMethod(appendAllMethod())
+        .addMethod(getMethod())
+        .addMethod(sizeMethod())
+        .addModifiers(PRIVATE, STATIC, FINAL)
+        .build();
+  }
+
+  private MethodSpec constructor() {
+    ParameterSpec elementsParam = ParameterSpec.builder(elements.type, elements.name).build();
+    ParameterSpec sizeParam = ParameterSpec.builder(size.type, size.name).build();
+    ParameterSpec usedParam = ParameterSpec.builder(used.type, used.name).build();
+    return MethodSpec.constructorBuilder()
+        .addParameter(elementsParam)
+        .addParameter(sizeParam)
+        .addParameter(usedParam)
+        .addStatement("this.$N = $N", elements, elementsParam)
+        .addStatement("this.$N = $N", size, sizeParam)
+        .addStatement("this.$N = $N", used, usedParam)
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  private MethodSpec ofMethod() {
+    ParameterSpec list = ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(List.class),
+        WildcardTypeName.subtypeOf(e)), "list").build();
+    ParameterSpec capacity = ParameterSpec.builder(TypeName.INT, "capacity").build();
+    ParameterSpec array = ParameterSpec.builder(ArrayTypeName.of(Object.class), "array").build();
+    ParameterSpec copy = ParameterSpec.builder(ArrayTypeName.of(Object.class), "copy").build();
+    CodeBlock.Builder block = CodeBlock.builder()
+        .beginControlFlow("if ($N instanceof $T)", list, model.persistentListClass())
+        .addStatement("return ($T) $N", type, list)
+        .endControlFlow()
+        .beginControlFlow("if ($N == null)", list)
+        .addStatement("return new $T<>(new $T[$N], 0, new $T())",
+            model.persistentListClass(), Object.class, capacity, AtomicInteger.class)
+        .endControlFlow()
+        .addStatement("$T $N = $N.toArray()", array.type, array, list)
+        .addStatement("$T $N = new $T[$T.max($N, $N.length + ($N.length >> 1) + 1)]",
+            copy.type, copy, Object.class, Math.class, capacity, array, array)
+        .addStatement("$T.arraycopy($N, 0, $N, 0, $N.length)", System.class, array, copy, array)
+        .addStatement("return new $T<>($N, $N.length, new $T($N.length))",
+            model.persistentListClass(), copy, array, AtomicInteger.class, array);
+    return MethodSpec.methodBuilder("of")
+        .addJavadoc("Returns {@code list} itself, if it is a persistent list,\n" +
+            "or else a persistent copy with room for {@code capacity} elements.\n")
+        .addAnnotation(unchecked())
+        .addTypeVariable(e)
+        .addParameter(list)
+        .addParameter(capacity)
+        .addCode(block.build())
+        .returns(type)
+        .addModifiers(STATIC)
+        .build();
+  }
+
+  private MethodSpec appendMethod() {
+    ParameterSpec value = ParameterSpec.builder(e, "value").build();
+    ParameterSpec copy = ParameterSpec.builder(ArrayTypeName.of(Object.class), "copy").build();
+    CodeBlock.Builder block = CodeBlock.builder()
+        .beginControlFlow("if ($N < $N.length && $N.compareAndSet($N, $N + 1))",
+            size, elements, used, size, size)
+        .addStatement("$N[$N] = $N", elements, size, value)
+        .addStatement("return new $T<>($N, $N + 1, $N)", model.persistentListClass(), elements, size, used)
+        .endControlFlow()
+        .add("// the next slot is taken, or the array is full\n")
+        .addStatement("$T $N = new $T[$T.max($L, $N + ($N >> 1) + 1)]",
+            copy.type, copy, Object.class, Math.class, DEFAULT_CAPACITY, size, size)
+        .addStatement("$T.arraycopy($N, 0, $N, 0, $N)", System.class, elements, copy, size)
+        .addStatement("$N[$N] = $N", copy, size, value)
+        .addStatement("return new $T<>($N, $N + 1, new $T($N + 1))",
+            model.persistentListClass(), copy, size, AtomicInteger.class, size);
+    return MethodSpec.methodBuilder("append")
+        .addParameter(value)
+        .addCode(block.build())
+        .returns(type)
+        .build();
+  }
+
+  private MethodSpec appendAllMethod() {
+    ParameterSpec values = ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Collection.class),
+        WildcardTypeName.subtypeOf(e)), "values").build();
+    ParameterSpec array = ParameterSpec.builder(ArrayTypeName.of(Object.class), "array").build();
+    ParameterSpec newSize = ParameterSpec.builder(TypeName.INT, "newSize").build();
+    ParameterSpec copy = ParameterSpec.builder(ArrayTypeName.of(Object.class), "copy").build();
+    CodeBlock.Builder block = CodeBlock.builder()
+        .addStatement("$T $N = $N.toArray()", array.type, array, values)
+        .beginControlFlow("if ($N.length == 0)", array)
+        .addStatement("return this")
+        .endControlFlow()
+        .addStatement("int $N = $N + $N.length", newSize, size, array)
+        .beginControlFlow("if ($N <= $N.length && $N.compareAndSet($N, $N))",
+            newSize, elements, used, size, newSize)
+        .addStatement("$T.arraycopy($N, 0, $N, $N, $N.length)", System.class, array, elements, size, array)
+        .addStatement("return new $T<>($N, $N, $N)", model.persistentListClass(), elements, newSize, used)
+        .endControlFlow()
+        .addStatement("$T $N = new $T[$T.max($N, $N + ($N >> 1) + 1)]",
+            copy.type, copy, Object.class, Math.class, newSize, size, size)
+        .addStatement("$T.arraycopy($N, 0, $N, 0, $N)", System.class, elements, copy, size)
+        .addStatement("$T.arraycopy($N, 0, $N, $N, $N.length)", System.class, array, copy, size, array)
+        .addStatement("return new $T<>($N, $N, new $T($N))",
+            model.persistentListClass(), copy, newSize, AtomicInteger.class, newSize);
+    return MethodSpec.methodBuilder("appendAll")
+        .addParameter(values)
+        .addCode(block.build())
+        .returns(type)
+        .build();
+  }
+
+  private MethodSpec getMethod() {
+    ParameterSpec index = ParameterSpec.builder(TypeName.INT, "index").build();
+    return MethodSpec.methodBuilder("get")
+        .addAnnotation(Override.class)
+        .addAnnotation(unchecked())
+        .addParameter(index)
+        .beginControlFlow("if ($N < 0 || $N >= $N)", index, index, size)
+        .addStatement("throw new $T(\"Index: \" + $N + \", Size: \" + $N)",
+            IndexOutOfBoundsException.class, index, size)
+        .endControlFlow()
+        .addStatement("return ($T) $N[$N]", e, elements, index)
+        .returns(e)
+        .addModifiers(PUBLIC)
+        .build();
+  }
+
+  private MethodSpec sizeMethod() {
+    return MethodSpec.methodBuilder("size")
+        .addAnnotation(Override.class)
+        .addStatement("return $N", size)
+        .returns(TypeName.INT)
+        .addModifiers(PUBLIC)
+        .build();
+  }
+
+  private static AnnotationSpec unchecked() {
+    return AnnotationSpec.builder(SuppressWarnings.class)
+        .addMember("value", "$S", "unchecked")
+        .build();
+  }
+}
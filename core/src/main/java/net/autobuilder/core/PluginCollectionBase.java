@@ -0,0 +1,102 @@
+package net.autobuilder.core;
+
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.TypeName;
+
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import java.util.List;
+import java.util.Optional;
+
+import static net.autobuilder.core.CollectionParameter.CollectionType.LIST;
+import static net.autobuilder.core.CollectionParameter.CollectionType.MAP;
+import static net.autobuilder.core.Model.withTypevars;
+import static net.autobuilder.core.Util.className;
+import static net.autobuilder.core.Util.typeArgumentSubtypes;
+import static net.autobuilder.core.Util.typeArguments;
+
+/**
+ * A collection type that is provided by a {@link CollectionPlugin}.
+ */
+final class PluginCollectionBase extends CollectionBase {
+
+  private final CollectionPlugin plugin;
+
+  private PluginCollectionBase(CollectionPlugin plugin) {
+    super(plugin.collectionClassName(), plugin.overloadArgumentClassName(), plugin.keyed() ? MAP : LIST);
+    this.plugin = plugin;
+  }
+
+  static CollectionBase ofPlugin(CollectionPlugin plugin) {
+    return new PluginCollectionBase(plugin);
+  }
+
+  @Override
+  CodeBlock accumulatorInitBlock(FieldSpec builderField) {
+    return CodeBlock.builder().addStatement("this.$N = $L",
+        builderField, plugin.accumulatorInitBlock()).build();
+  }
+
+  @Override
+  CodeBlock sizedAccumulatorInitBlock(FieldSpec builderField, CodeBlock expectedSize) {
+    return CodeBlock.builder().addStatement("this.$N = $L",
+        builderField, plugin.sizedAccumulatorInitBlock(expectedSize)).build();
+  }
+
+  @Override
+  Optional<CodeBlock> ensureCapacityBlock(FieldSpec builderField, CodeBlock expectedSize) {
+    return Optional.empty();
+  }
+
+  @Override
+  public CodeBlock emptyBlock() {
+    return plugin.emptyBlock();
+  }
+
+  @Override
+  public DeclaredType accumulatorType(RegularParameter parameter) {
+    TypeTool tool = TypeTool.get();
+    List<? extends TypeMirror> typeArguments = tool.getDeclaredType(parameter.variableElement.asType()).getTypeArguments();
+    return tool.getDeclaredType(plugin.accumulatorClassName(), typeArguments);
+  }
+
+  @Override
+  DeclaredType accumulatorOverloadArgumentType(RegularParameter parameter) {
+    return TypeTool.get().getDeclaredType(overloadArgumentType().asType(),
+        typeArgumentSubtypes(parameter.variableElement));
+  }
+
+  @Override
+  public CodeBlock setterAssignmentCode(RegularParameter parameter) {
+    FieldSpec field = parameter.asField();
+    ParameterSpec p = parameter.asSetterParameter();
+    return CodeBlock.builder()
+        .addStatement("this.$N = $L", field, plugin.setterAssignmentBlock(CodeBlock.of("$N", p)))
+        .build();
+  }
+
+  @Override
+  public CodeBlock buildBlock(FieldSpec field) {
+    return plugin.buildBlock(CodeBlock.of("$N", field));
+  }
+
+  @Override
+  Optional<CodeBlock> copyBlock(FieldSpec field) {
+    return plugin.copyBlock(CodeBlock.of("$N", field));
+  }
+
+  @Override
+  public Optional<CodeBlock> unboxedBuildBlock(FieldSpec field) {
+    return plugin.unboxedBuildBlock(CodeBlock.of("$N", field));
+  }
+
+  @Override
+  public ParameterSpec setterParameter(RegularParameter parameter) {
+    TypeName type = withTypevars(
+        className(plugin.setterParameterClassName()),
+        typeArguments(parameter.variableElement));
+    return ParameterSpec.builder(type, parameter.setterName).build();
+  }
+}
@@ -0,0 +1,56 @@
+package net.autobuilder.core;
+
+import javax.annotation.processing.Messager;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import static javax.tools.Diagnostic.Kind.ERROR;
+import static net.autobuilder.core.PluginCollectionBase.ofPlugin;
+
+/**
+ * The collection plugins on the annotation processor path.
+ * Like {@link TypeTool}, they are loaded at the start of each processing round,
+ * so a plugin that fails to load is reported in the compiler output,
+ * rather than failing the processor class initialization.
+ */
+final class Plugins {
+
+  private static Plugins INSTANCE;
+
+  private final Map<String, CollectionBase> bases;
+
+  private Plugins(Map<String, CollectionBase> bases) {
+    this.bases = bases;
+  }
+
+  static void init(ClassLoader classLoader, Messager messager) {
+    Map<String, CollectionBase> bases = new HashMap<>();
+    Iterator<CollectionPlugin> plugins = ServiceLoader.load(CollectionPlugin.class, classLoader).iterator();
+    try {
+      while (plugins.hasNext()) {
+        CollectionPlugin plugin = plugins.next();
+        bases.putIfAbsent(plugin.collectionClassName(), ofPlugin(plugin));
+      }
+    } catch (ServiceConfigurationError e) {
+      // the iterator may not be able to recover, so skip the remaining plugins
+      messager.printMessage(ERROR, "Could not load collection plugin: " + e.getMessage());
+    }
+    INSTANCE = new Plugins(bases);
+  }
+
+  static void clear() {
+    INSTANCE = null;
+  }
+
+  static Plugins get() {
+    return INSTANCE;
+  }
+
+  Optional<CollectionBase> lookup(String collectionClassName) {
+    return Optional.ofNullable(bases.get(collectionClassName));
+  }
+}
@@ -0,0 +1,116 @@
+package net.autobuilder.core;
+
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.ParameterSpec;
+
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.util.Collections;
+import java.util.Optional;
+
+import static net.autobuilder.core.CollectionParameter.CollectionType.PRIMITIVE_LIST;
+
+/**
+ * Guava's {@code ImmutableIntArray}, {@code ImmutableLongArray}
+ * and {@code ImmutableDoubleArray}.
+ * The accumulator is the matching primitive builder,
+ * so that the {@code addTo} methods don't box.
+ */
+final class PrimitiveArrayBase extends CollectionBase {
+
+  private static final String GCP = "com.google.common.primitives.";
+
+  // the element type, like int
+  private final TypeKind kind;
+
+  private PrimitiveArrayBase(String className, TypeKind kind) {
+    super(className, className, PRIMITIVE_LIST);
+    this.kind = kind;
+  }
+
+  static CollectionBase ofPrimitive(String simpleName, TypeKind kind) {
+    return new PrimitiveArrayBase(GCP + simpleName, kind);
+  }
+
+  @Override
+  CodeBlock accumulatorInitBlock(FieldSpec builderField) {
+    return CodeBlock.builder().addStatement("this.$N = $T.builder()",
+        builderField, collectionClassName()).build();
+  }
+
+  @Override
+  CodeBlock sizedAccumulatorInitBlock(FieldSpec builderField, CodeBlock expectedSize) {
+    return CodeBlock.builder().addStatement("this.$N = $T.builder($L)",
+        builderField, collectionClassName(), expectedSize).build();
+  }
+
+  @Override
+  Optional<CodeBlock> ensureCapacityBlock(FieldSpec builderField, CodeBlock expectedSize) {
+    // the builder can't be resized from outside
+    return Optional.empty();
+  }
+
+  @Override
+  public CodeBlock emptyBlock() {
+    return CodeBlock.of("$T.of()", collectionClassName());
+  }
+
+  @Override
+  public DeclaredType accumulatorType(RegularParameter parameter) {
+    return TypeTool.get().getDeclaredType(collectionClassName + ".Builder", Collections.emptyList());
+  }
+
+  @Override
+  DeclaredType accumulatorOverloadArgumentType(RegularParameter parameter) {
+    return TypeTool.get().getDeclaredType(overloadArgumentType().asType());
+  }
+
+  @Override
+  TypeMirror accumulatorElementType(RegularParameter parameter) {
+    return TypeTool.get().getPrimitiveType(kind);
+  }
+
+  @Override
+  Optional<ArrayType> accumulatorArrayOverloadArgumentType() {
+    TypeTool tool = TypeTool.get();
+    return Optional.of(tool.getArrayType(tool.getPrimitiveType(kind)));
+  }
+
+  @Override
+  CodeBlock sizeBlock(CodeBlock collection) {
+    return CodeBlock.of("$L.length()", collection);
+  }
+
+  @Override
+  public CodeBlock setterAssignmentCode(RegularParameter parameter) {
+    FieldSpec field = parameter.asField();
+    ParameterSpec p = parameter.asSetterParameter();
+    return CodeBlock.builder()
+        .addStatement("this.$N = $N", field, p)
+        .build();
+  }
+
+  @Override
+  public CodeBlock buildBlock(FieldSpec field) {
+    return CodeBlock.of("$N.build()", field);
+  }
+
+  @Override
+  Optional<CodeBlock> copyBlock(FieldSpec field) {
+    // the builder has no clear method
+    return Optional.empty();
+  }
+
+  @Override
+  public Optional<CodeBlock> unboxedBuildBlock(FieldSpec field) {
+    return Optional.empty();
+  }
+
+  @Override
+  public ParameterSpec setterParameter(RegularParameter parameter) {
+    return ParameterSpec.builder(collectionClassName(), parameter.setterName).build();
+  }
+}
@@ -0,0 +1,254 @@
+package net.autobuilder.core;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
+
+import javax.lang.model.type.TypeKind;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.PUBLIC;
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * Generates the accumulator that is used for lists and sets of
+ * {@code Integer}, {@code Long} or {@code Double}
+ * if {@code unboxedAccumulators = true},
+ * and for primitive array properties.
+ * It stores the elements in a primitive array.
+ *
+ * <p>The accumulator is a read-only {@code java.util.List} as well,
+ * which boxes only in {@code get}.
+ * For {@code java.util.List} properties, {@code build()} returns a trimmed copy of it,
+ * so the elements are never boxed while the object is built.
+ * For array properties, {@code build()} returns the array itself if it is full,
+ * or else a trimmed copy.</p>
+ */
+final class PrimitiveList {
+
+  // initial capacity, when there are no elements yet
+  static final int DEFAULT_CAPACITY = 10;
+
+  private final ClassName className;
+  private final TypeName primitive;
+  private final TypeName boxed;
+  private final FieldSpec elements;
+  private final FieldSpec size;
+
+  private PrimitiveList(Model model, TypeKind kind) {
+    this.className = model.primitiveListClass(kind);
+    this.primitive = TypeName.get(TypeTool.get().getPrimitiveType(kind));
+    this.boxed = primitive.box();
+    this.elements = FieldSpec.builder(ArrayTypeName.of(primitive), "elements")
+        .addModifiers(PRIVATE)
+        .build();
+    this.size = FieldSpec.builder(TypeName.INT, "size")
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  static PrimitiveList create(Model model, TypeKind kind) {
+    return new PrimitiveList(model, kind);
+  }
+
+  TypeSpec define() {
+    return TypeSpec.classBuilder(className)
+        .superclass(ParameterizedTypeName.get(ClassName.get(AbstractList.class), boxed))
+        .addSuperinterface(RandomAccess.class)
+        .addField(elements)
+        .addField(size)
+        .addMethod(constructor())
+        .addMethod(ofMethod())
+        .addMethod(ofArrayMethod())
+        .addMethod(appendMethod())
+        .addMethod(appendAllMethod())
+        .addMethod(appendAllArrayMethod())
+        .addMethod(ensureCapacityMethod())
+        .addMethod(snapshotMethod())
+        .addMethod(trimmedMethod())
+        .addMethod(trimmedCopyMethod())
+        .addMethod(getMethod())
+        .addMethod(sizeMethod())
+        .addModifiers(PRIVATE, STATIC, FINAL)
+        .build();
+  }
+
+  private MethodSpec constructor() {
+    ParameterSpec elementsParam = ParameterSpec.builder(elements.type, elements.name).build();
+    ParameterSpec sizeParam = ParameterSpec.builder(size.type, size.name).build();
+    return MethodSpec.constructorBuilder()
+        .addParameter(elementsParam)
+        .addParameter(sizeParam)
+        .addStatement("this.$N = $N", elements, elementsParam)
+        .addStatement("this.$N = $N", size, sizeParam)
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  private MethodSpec ofMethod() {
+    ParameterSpec values = ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Collection.class),
+        WildcardTypeName.subtypeOf(boxed)), "values").build();
+    ParameterSpec capacity = ParameterSpec.builder(TypeName.INT, "capacity").build();
+    ParameterSpec result = ParameterSpec.builder(className, "result").build();
+    CodeBlock.Builder block = CodeBlock.builder()
+        .beginControlFlow("if ($N == null)", values)
+        .addStatement("return new $T(new $T[$N], 0)", className, primitive, capacity)
+        .endControlFlow()
+        .addStatement("$T $N = new $T(new $T[$T.max($N, $N.size() + 1)], 0)",
+            className, result, className, primitive, Math.class, capacity, values)
+        .addStatement("$N.appendAll($N)", result, values)
+        .addStatement("return $N", result);
+    return MethodSpec.methodBuilder("of")
+        .addJavadoc("Returns a new accumulator that contains {@code values}.\n")
+        .addParameter(values)
+        .addParameter(capacity)
+        .addCode(block.build())
+        .returns(className)
+        .addModifiers(STATIC)
+        .build();
+  }
+
+  private MethodSpec ofArrayMethod() {
+    ParameterSpec values = ParameterSpec.builder(ArrayTypeName.of(primitive), "values").build();
+    ParameterSpec capacity = ParameterSpec.builder(TypeName.INT, "capacity").build();
+    CodeBlock.Builder block = CodeBlock.builder()
+        .beginControlFlow("if ($N == null)", values)
+        .addStatement("return new $T(new $T[$N], 0)", className, primitive, capacity)
+        .endControlFlow()
+        .addStatement("return new $T($T.copyOf($N, $T.max($N, $N.length + 1)), $N.length)",
+            className, Arrays.class, values, Math.class, capacity, values, values);
+    return MethodSpec.methodBuilder("of")
+        .addJavadoc("Returns a new accumulator that contains a copy of {@code values}.\n")
+        .addParameter(values)
+        .addParameter(capacity)
+        .addCode(block.build())
+        .returns(className)
+        .addModifiers(STATIC)
+        .build();
+  }
+
+  private MethodSpec appendMethod() {
+    ParameterSpec value = ParameterSpec.builder(primitive, "value").build();
+    return MethodSpec.methodBuilder("append")
+        .addParameter(value)
+        .beginControlFlow("if ($N == $N.length)", size, elements)
+        .addStatement("$N = $T.copyOf($N, $T.max($L, $N + ($N >> 1) + 1))",
+            elements, Arrays.class, elements, Math.class, DEFAULT_CAPACITY, size, size)
+        .endControlFlow()
+        .addStatement("$N[$N++] = $N", elements, size, value)
+        .build();
+  }
+
+  private MethodSpec appendAllMethod() {
+    ParameterSpec values = ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Iterable.class),
+        WildcardTypeName.subtypeOf(boxed)), "values").build();
+    ParameterSpec other = ParameterSpec.builder(className, "other").build();
+    ParameterSpec value = ParameterSpec.builder(boxed, "value").build();
+    CodeBlock.Builder block = CodeBlock.builder()
+        .beginControlFlow("if ($N instanceof $T)", values, className)
+        .addStatement("$T $N = ($T) $N", className, other, className, values)
+        .addStatement("ensureCapacity($N + $N.$N)", size, other, size)
+        .addStatement("$T.arraycopy($N.$N, 0, $N, $N, $N.$N)",
+            System.class, other, elements, elements, size, other, size)
+        .addStatement("$N += $N.$N", size, other, size)
+        .addStatement("return")
+        .endControlFlow()
+        .beginControlFlow("if ($N instanceof $T)", values, Collection.class)
+        .addStatement("ensureCapacity($N + (($T<?>) $N).size())", size, Collection.class, values)
+        .endControlFlow()
+        .add("// throws NullPointerException if there are null elements\n")
+        .beginControlFlow("for ($T $N : $N)", boxed, value, values)
+        .addStatement("append($N)", value)
+        .endControlFlow();
+    return MethodSpec.methodBuilder("appendAll")
+        .addParameter(values)
+        .addCode(block.build())
+        .build();
+  }
+
+  private MethodSpec appendAllArrayMethod() {
+    ParameterSpec values = ParameterSpec.builder(ArrayTypeName.of(primitive), "values").build();
+    ParameterSpec offset = ParameterSpec.builder(TypeName.INT, "offset").build();
+    ParameterSpec length = ParameterSpec.builder(TypeName.INT, "length").build();
+    return MethodSpec.methodBuilder("appendAll")
+        .addParameter(values)
+        .addParameter(offset)
+        .addParameter(length)
+        .addStatement("ensureCapacity($N + $N)", size, length)
+        .addStatement("$T.arraycopy($N, $N, $N, $N, $N)", System.class, values, offset, elements, size, length)
+        .addStatement("$N += $N", size, length)
+        .build();
+  }
+
+  private MethodSpec ensureCapacityMethod() {
+    ParameterSpec capacity = ParameterSpec.builder(TypeName.INT, "capacity").build();
+    return MethodSpec.methodBuilder("ensureCapacity")
+        .addParameter(capacity)
+        .beginControlFlow("if ($N > $N.length)", capacity, elements)
+        .addStatement("$N = $T.copyOf($N, $T.max($N, $N.length + ($N.length >> 1)))",
+            elements, Arrays.class, elements, Math.class, capacity, elements, elements)
+        .endControlFlow()
+        .build();
+  }
+
+  private MethodSpec snapshotMethod() {
+    return MethodSpec.methodBuilder("snapshot")
+        .addJavadoc("Returns a trimmed copy, which doesn't change when more elements are appended.\n")
+        .addStatement("return new $T($T.copyOf($N, $N), $N)", className, Arrays.class, elements, size, size)
+        .returns(className)
+        .build();
+  }
+
+  private MethodSpec trimmedMethod() {
+    return MethodSpec.methodBuilder("trimmed")
+        .addJavadoc("Returns the backing array if it is full, or else a trimmed copy.\n" +
+            "A full array is never written to again, because the next append has to grow it.\n")
+        .addStatement("return $N == $N.length ? $N : $T.copyOf($N, $N)",
+            size, elements, elements, Arrays.class, elements, size)
+        .returns(ArrayTypeName.of(primitive))
+        .build();
+  }
+
+  private MethodSpec trimmedCopyMethod() {
+    return MethodSpec.methodBuilder("trimmedCopy")
+        .addStatement("return $T.copyOf($N, $N)", Arrays.class, elements, size)
+        .returns(ArrayTypeName.of(primitive))
+        .build();
+  }
+
+  private MethodSpec getMethod() {
+    ParameterSpec index = ParameterSpec.builder(TypeName.INT, "index").build();
+    return MethodSpec.methodBuilder("get")
+        .addAnnotation(Override.class)
+        .addParameter(index)
+        .beginControlFlow("if ($N < 0 || $N >= $N)", index, index, size)
+        .addStatement("throw new $T(\"Index: \" + $N + \", Size: \" + $N)",
+            IndexOutOfBoundsException.class, index, size)
+        .endControlFlow()
+        .addStatement("return $N[$N]", elements, index)
+        .returns(boxed)
+        .addModifiers(PUBLIC)
+        .build();
+  }
+
+  private MethodSpec sizeMethod() {
+    return MethodSpec.methodBuilder("size")
+        .addAnnotation(Override.class)
+        .addStatement("return $N", size)
+        .returns(TypeName.INT)
+        .addModifiers(PUBLIC)
+        .build();
+  }
+}
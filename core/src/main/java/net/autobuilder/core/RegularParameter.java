@@ -2,6 +2,7 @@ package net.autobuilder.core;
 
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.TypeName;
+import net.autobuilder.AutoBuilder;
 
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
@@ -14,6 +15,7 @@ import java.util.*;
 import java.util.regex.Pattern;
 
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static javax.lang.model.element.Modifier.PRIVATE;
 import static javax.lang.model.element.Modifier.PUBLIC;
 import static net.autobuilder.core.Cleanse.preventNamingCollisions;
@@ -61,6 +63,11 @@ public final class RegularParameter extends Parameter {
       ExecutableElement avConstructor,
       TypeElement avType) {
     Set<String> methodNames = methodNames(sourceElement, avType);
+    AutoBuilder options = sourceElement.getAnnotation(AutoBuilder.class);
+    Set<String> defensiveCopies = ElementFilter.methodsIn(sourceElement.getEnclosedElements()).stream()
+        .filter(method -> method.getAnnotation(AutoBuilder.DefensiveCopy.class) != null)
+        .map(method -> method.getSimpleName().toString())
+        .collect(toSet());
     List<? extends VariableElement> rawParameters = avConstructor.getParameters();
     List<Parameter> avConstructorParameters = rawParameters.stream()
         .map(variableElement -> {
@@ -70,9 +77,12 @@ public final class RegularParameter extends Parameter {
           String setterName = setterName(name, type);
           RegularParameter parameter = new RegularParameter(
               variableElement, setterName, getterName, generatedClass, isPublic);
-          return CollectionParameter.maybeCreate(parameter)
-              .orElse(OptionalParameter.maybeCreate(parameter)
-                  .orElse(parameter));
+          // orElseGet, so that only the first match is created
+          return CollectionParameter.maybeCreate(parameter, options)
+              .orElseGet(() -> OptionalParameter.maybeCreate(parameter)
+                  .orElseGet(() -> ArrayParameter.maybeCreate(parameter, options, defensiveCopies.contains(getterName))
+                      .orElseGet(() -> NestedParameter.maybeCreate(parameter)
+                          .orElse(parameter))));
         })
         .collect(toList());
     return preventNamingCollisions(avConstructorParameters);
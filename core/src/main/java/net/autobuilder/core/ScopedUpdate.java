@@ -0,0 +1,147 @@
+package net.autobuilder.core;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.WildcardTypeName;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * <p>Generates the {@code create} and {@code update} methods,
+ * which hand a builder to a callback, and then build it.
+ * The builder can't escape, so in the reuse modes
+ * it is always given back when the method returns,
+ * also if the callback throws.
+ * The {@code inUse} flag of the builder tells if the callback
+ * has given it back already, by calling {@code build()};
+ * then it is not given back a second time.</p>
+ *
+ * <p>Calls of these methods can be nested, also for different types.
+ * Each call takes its own builder.
+ * For a nested property, see {@link NestedParameter#updateMethod(Model)}.</p>
+ */
+final class ScopedUpdate {
+
+  private final Model model;
+  private final String toBuilderMethodName;
+
+  // only in the reuse modes
+  private final FieldSpec inUse;
+
+  // resets the builder and gives it back, if the build failed; empty in NONE mode
+  private final CodeBlock discard;
+
+  private final ParameterSpec edits;
+
+  private ScopedUpdate(
+      Model model,
+      String toBuilderMethodName,
+      FieldSpec inUse,
+      CodeBlock discard) {
+    this.model = model;
+    this.toBuilderMethodName = toBuilderMethodName;
+    this.inUse = inUse;
+    this.discard = discard;
+    this.edits = ParameterSpec.builder(ParameterizedTypeName.get(ClassName.get(Consumer.class),
+        WildcardTypeName.supertypeOf(model.generatedClass)), "edits").build();
+  }
+
+  /**
+   * @param inUse the flag that is cleared when the builder is given back
+   * @param discard code that gives back a failed builder,
+   *                which is in a local variable called {@code builder}
+   */
+  static ScopedUpdate create(
+      Model model,
+      String toBuilderMethodName,
+      FieldSpec inUse,
+      CodeBlock discard) {
+    return new ScopedUpdate(model, toBuilderMethodName, inUse, discard);
+  }
+
+  private TypeName sourceType() {
+    return TypeName.get(model.sourceElement().asType());
+  }
+
+  List<MethodSpec> methods() {
+    return Arrays.asList(createMethod(), updateMethod());
+  }
+
+  private MethodSpec createMethod() {
+    String methodName = model.uniqueSetterMethodName("create",
+        TypeTool.get().getTypeElement(Consumer.class).asType());
+    return method(methodName)
+        .addJavadoc("Applies {@code $N} to a new builder, and returns the result.\n", edits)
+        .addJavadoc(javadocTail())
+        .addCode(scoped(CodeBlock.of("builder()")))
+        .addParameter(edits)
+        .build();
+  }
+
+  private MethodSpec updateMethod() {
+    ParameterSpec input = ParameterSpec.builder(sourceType(), "input").build();
+    String methodName = model.uniqueSetterMethodName("update", model.sourceElement().asType());
+    return method(methodName)
+        .addJavadoc("Applies {@code $N} to a builder that is loaded with {@code $N},\n" +
+            "and returns the result.\n", edits, input)
+        .addJavadoc(javadocTail())
+        .addCode(scoped(CodeBlock.of("$L($N)", toBuilderMethodName, input)))
+        .addParameter(input)
+        .addParameter(edits)
+        .build();
+  }
+
+  private CodeBlock javadocTail() {
+    CodeBlock.Builder javadoc = CodeBlock.builder()
+        .add("The builder is only valid during the call;\n" +
+            "{@code $N} must not keep it, or call {@code build()}.\n", edits);
+    if (!discard.isEmpty()) {
+      javadoc.add("The builder is given back for reuse, even if {@code $N} throws.\n", edits)
+          .add("@throws $T if {@code $N} has called {@code build()}\n",
+              IllegalStateException.class, edits);
+    }
+    return javadoc.build();
+  }
+
+  // takes a builder, applies the edits, and builds it
+  private CodeBlock scoped(CodeBlock newBuilder) {
+    CodeBlock.Builder code = CodeBlock.builder()
+        .addStatement("$T builder = $L", model.generatedClass, newBuilder);
+    if (discard.isEmpty()) {
+      return code.addStatement("$N.accept(builder)", edits)
+          .addStatement("return builder.build()")
+          .build();
+    }
+    // build() gives the builder back, unless it throws
+    return code.beginControlFlow("try")
+        .addStatement("$N.accept(builder)", edits)
+        .beginControlFlow("if (!builder.$N)", inUse)
+        .addStatement("throw new $T($S)", IllegalStateException.class,
+            "edits must not call build()")
+        .endControlFlow()
+        .addStatement("return builder.build()")
+        .nextControlFlow("catch ($T t)", Throwable.class)
+        .beginControlFlow("if (builder.$N)", inUse)
+        .add(discard)
+        .endControlFlow()
+        .addStatement("throw t")
+        .endControlFlow()
+        .build();
+  }
+
+  private MethodSpec.Builder method(String name) {
+    return MethodSpec.methodBuilder(name)
+        .addModifiers(STATIC)
+        .addModifiers(model.maybePublic())
+        .returns(sourceType());
+  }
+}
@@ -0,0 +1,153 @@
+package net.autobuilder.core;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static javax.lang.model.element.Modifier.FINAL;
+import static javax.lang.model.element.Modifier.PRIVATE;
+import static javax.lang.model.element.Modifier.STATIC;
+
+/**
+ * Generates the builder cache for {@code Reuse.POOL}.
+ * There is a fixed number of slots, which are shared by all threads.
+ * A builder is taken out of its slot while it is in use,
+ * so it can't be handed out twice.
+ * The {@code inUse} flag of the builder makes {@code release} a no-op
+ * for a builder that was given back already,
+ * so that calling {@code build()} twice doesn't put it into two slots.
+ * All slots are searched,
+ * starting with the slot that belongs to the current thread.
+ */
+final class StripedFactory {
+
+  // distance between two used slots, so they don't share a cache line
+  private static final int PADDING = 16;
+
+  private final Model model;
+  private final MethodSpec initMethod;
+  private final FieldSpec slots;
+  private final FieldSpec inUse;
+
+  private StripedFactory(
+      Model model,
+      MethodSpec initMethod,
+      FieldSpec inUse) {
+    this.model = model;
+    this.initMethod = initMethod;
+    this.inUse = inUse;
+    this.slots = FieldSpec.builder(ParameterizedTypeName.get(
+        ClassName.get(AtomicReferenceArray.class), model.generatedClass), "slots")
+        .addModifiers(PRIVATE, FINAL)
+        .initializer("new $T<>(stripes() * $L)", AtomicReferenceArray.class, PADDING)
+        .build();
+  }
+
+  static StripedFactory create(
+      Model model,
+      MethodSpec initMethod,
+      FieldSpec inUse) {
+    return new StripedFactory(model, initMethod, inUse);
+  }
+
+  TypeSpec define() {
+    return TypeSpec.classBuilder(model.stripedFactoryClass())
+        .addField(slots)
+        .addMethod(builderMethod())
+        .addMethod(builderMethodWithoutParam())
+        .addMethod(releaseMethod())
+        .addMethod(indexMethod())
+        .addMethod(stripesMethod())
+        .addModifiers(PRIVATE, STATIC, FINAL)
+        .build();
+  }
+
+  private MethodSpec builderMethod() {
+    ParameterSpec input = ParameterSpec.builder(TypeName.get(model.sourceElement().asType()), "input").build();
+    ParameterSpec builder = ParameterSpec.builder(model.generatedClass, "builder").build();
+    CodeBlock.Builder block = CodeBlock.builder()
+        .addStatement("$T $N = builder()", builder.type, builder)
+        .addStatement("$N.$N($N)", builder, initMethod, input)
+        .addStatement("return $N", builder);
+    return MethodSpec.methodBuilder("builder")
+        .addParameter(input)
+        .addCode(block.build())
+        .returns(model.generatedClass)
+        .build();
+  }
+
+  private MethodSpec builderMethodWithoutParam() {
+    ParameterSpec builder = ParameterSpec.builder(model.generatedClass, "builder").build();
+    ParameterSpec home = ParameterSpec.builder(TypeName.INT, "home").build();
+    ParameterSpec index = ParameterSpec.builder(TypeName.INT, "index").build();
+    CodeBlock.Builder block = CodeBlock.builder()
+        .addStatement("int $N = index()", home)
+        .beginControlFlow("for (int i = 0; i < $N.length(); i += $L)", slots, PADDING)
+        .addStatement("int $N = ($N + i) & ($N.length() - 1)", index, home, slots)
+        .addStatement("$T $N = $N.get($N)", builder.type, builder, slots, index)
+        .beginControlFlow("if ($N != null && $N.compareAndSet($N, $N, null))",
+            builder, slots, index, builder)
+        .addStatement("$N.$N = $L", builder, inUse, true)
+        .addStatement("return $N", builder)
+        .endControlFlow()
+        .endControlFlow()
+        .addStatement("$T $N = new $T()", builder.type, builder, model.generatedClass)
+        .addStatement("$N.$N = $L", builder, inUse, true)
+        .addStatement("return $N", builder);
+    return MethodSpec.methodBuilder("builder")
+        .addCode(block.build())
+        .returns(model.generatedClass)
+        .build();
+  }
+
+  private MethodSpec releaseMethod() {
+    ParameterSpec builder = ParameterSpec.builder(model.generatedClass, "builder").build();
+    ParameterSpec home = ParameterSpec.builder(TypeName.INT, "home").build();
+    ParameterSpec index = ParameterSpec.builder(TypeName.INT, "index").build();
+    CodeBlock.Builder block = CodeBlock.builder()
+        .beginControlFlow("if (!$N.$N)", builder, inUse)
+        .add("// given back already\n")
+        .addStatement("return")
+        .endControlFlow()
+        .addStatement("$N.$N = $L", builder, inUse, false)
+        .addStatement("int $N = index()", home)
+        .beginControlFlow("for (int i = 0; i < $N.length(); i += $L)", slots, PADDING)
+        .addStatement("int $N = ($N + i) & ($N.length() - 1)", index, home, slots)
+        .beginControlFlow("if ($N.get($N) == null && $N.compareAndSet($N, null, $N))",
+            slots, index, slots, index, builder)
+        .addStatement("return")
+        .endControlFlow()
+        .endControlFlow();
+    return MethodSpec.methodBuilder("release")
+        .addParameter(builder)
+        .addCode(block.build())
+        .build();
+  }
+
+  // not Thread.getId(), which is deprecated since Java 19
+  private MethodSpec indexMethod() {
+    return MethodSpec.methodBuilder("index")
+        .addStatement("int h = $T.identityHashCode($T.currentThread())", System.class, Thread.class)
+        .addStatement("return ((h ^ (h >>> 16)) * $L) & ($N.length() - 1)", PADDING, slots)
+        .returns(TypeName.INT)
+        .addModifiers(PRIVATE)
+        .build();
+  }
+
+  private MethodSpec stripesMethod() {
+    return MethodSpec.methodBuilder("stripes")
+        .addComment("smallest power of two that is not less than the number of processors, but at least 2")
+        .addStatement("int processors = $T.getRuntime().availableProcessors()", Runtime.class)
+        .addStatement("return $T.highestOneBit($T.max(2, processors) * 2 - 1)", Integer.class, Math.class)
+        .returns(TypeName.INT)
+        .addModifiers(PRIVATE, STATIC)
+        .build();
+  }
+}
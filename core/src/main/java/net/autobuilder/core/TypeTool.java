@@ -3,6 +3,7 @@ package net.autobuilder.core;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementVisitor;
 import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
@@ -170,6 +171,10 @@ class TypeTool {
         types.erasure(m1));
   }
 
+  boolean isAssignableToErasure(TypeMirror m0, Class<?> m1) {
+    return types.isAssignable(m0, types.erasure(elements.getTypeElement(m1.getCanonicalName()).asType()));
+  }
+
   boolean isSameErasure(TypeMirror m0, TypeMirror m1) {
     return types.isSameType(types.erasure(m0), types.erasure(m1));
   }
@@ -177,4 +182,8 @@ class TypeTool {
   TypeMirror getPrimitiveType(TypeKind kind) {
     return types.getPrimitiveType(kind);
   }
+
+  ArrayType getArrayType(TypeMirror componentType) {
+    return types.getArrayType(componentType);
+  }
 }
@@ -8,8 +8,10 @@ import com.squareup.javapoet.TypeName;
 
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeMirror;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 import static net.autobuilder.core.CollectionParameter.CollectionType.LIST;
 import static net.autobuilder.core.Model.withTypevars;
@@ -19,17 +21,30 @@ import static net.autobuilder.core.Util.typeArguments;
 final class UtilCollectionBase extends CollectionBase {
 
   private final String emptyMethod;
+  private final String unmodifiableMethod;
   private final ClassName accumulatorClass;
 
+  // is the accumulator a HashSet or HashMap?
+  private final boolean hashed;
+
+  // build with List.copyOf, Set.copyOf or Map.copyOf?
+  private final boolean jdkCopies;
+
   private UtilCollectionBase(
       ClassName accumulatorClass,
       String emptyMethod,
+      String unmodifiableMethod,
       String className,
       CollectionParameter.CollectionType type,
-      String accumulatorAddAllType) {
+      String accumulatorAddAllType,
+      boolean hashed,
+      boolean jdkCopies) {
     super(className, accumulatorAddAllType, type);
     this.accumulatorClass = accumulatorClass;
+    this.hashed = hashed;
+    this.jdkCopies = jdkCopies;
     this.emptyMethod = emptyMethod;
+    this.unmodifiableMethod = unmodifiableMethod;
   }
 
   static CollectionBase ofUtil(
@@ -43,9 +58,18 @@ final class UtilCollectionBase extends CollectionBase {
     return new UtilCollectionBase(
         ClassName.get(builderClass),
         emptyMethod,
+        "unmodifiable" + simpleName,
         "java.util." + simpleName,
         collectionType,
-        accumulatorAddAllType);
+        accumulatorAddAllType,
+        !builderClass.equals(ArrayList.class),
+        false);
+  }
+
+  @Override
+  CollectionBase withJdkCopies() {
+    return new UtilCollectionBase(accumulatorClass, emptyMethod, unmodifiableMethod,
+        collectionClassName, collectionType, overloadArgumentType, hashed, true);
   }
 
   @Override
@@ -54,8 +78,31 @@ final class UtilCollectionBase extends CollectionBase {
         builderField, accumulatorClass).build();
   }
 
+  @Override
+  CodeBlock sizedAccumulatorInitBlock(FieldSpec builderField, CodeBlock expectedSize) {
+    if (hashed) {
+      // default load factor is 0.75
+      return CodeBlock.builder().addStatement("this.$N = new $T<>($T.max((int) (($L) / 0.75f) + 1, 16))",
+          builderField, accumulatorClass, Math.class, expectedSize).build();
+    }
+    return CodeBlock.builder().addStatement("this.$N = new $T<>($L)",
+        builderField, accumulatorClass, expectedSize).build();
+  }
+
+  @Override
+  Optional<CodeBlock> ensureCapacityBlock(FieldSpec builderField, CodeBlock expectedSize) {
+    if (hashed) {
+      return Optional.empty();
+    }
+    return Optional.of(CodeBlock.builder().addStatement("this.$N.ensureCapacity($L)",
+        builderField, expectedSize).build());
+  }
+
   @Override
   public CodeBlock emptyBlock() {
+    if (jdkCopies) {
+      return CodeBlock.of("$T.of()", collectionClassName());
+    }
     return CodeBlock.of("$T.$L()", Collections.class, emptyMethod);
   }
 
@@ -73,10 +120,25 @@ final class UtilCollectionBase extends CollectionBase {
         typeArgumentSubtypes(parameter.variableElement));
   }
 
+  @Override
+  CodeBlock witherValueBlock(ParameterSpec value) {
+    if (jdkCopies) {
+      return CodeBlock.of("$N != null ? $T.copyOf($N) : $L",
+          value, collectionClassName(), value, emptyBlock());
+    }
+    return super.witherValueBlock(value);
+  }
+
   @Override
   public CodeBlock setterAssignmentCode(RegularParameter parameter) {
     FieldSpec field = parameter.asField();
     ParameterSpec p = parameter.asSetterParameter();
+    if (jdkCopies) {
+      return CodeBlock.builder()
+          .addStatement("this.$N = $N != null ? $T.copyOf($N) : null",
+              field, p, collectionClassName(), p)
+          .build();
+    }
     return CodeBlock.builder()
         .addStatement("this.$N = $N", field, p)
         .build();
@@ -84,9 +146,34 @@ final class UtilCollectionBase extends CollectionBase {
 
   @Override
   public CodeBlock buildBlock(FieldSpec field) {
+    if (jdkCopies) {
+      return CodeBlock.of("$T.copyOf($N)", collectionClassName(), field);
+    }
     return CodeBlock.of("$N", field);
   }
 
+  @Override
+  Optional<CodeBlock> copyBlock(FieldSpec field) {
+    if (jdkCopies) {
+      return Optional.of(buildBlock(field));
+    }
+    return Optional.of(CodeBlock.of("$T.$L(new $T<>($N))",
+        Collections.class, unmodifiableMethod, accumulatorClass, field));
+  }
+
+  @Override
+  public Optional<CodeBlock> unboxedBuildBlock(FieldSpec field) {
+    if (jdkCopies && hashed) {
+      return Optional.of(CodeBlock.of("$T.copyOf($N)", collectionClassName(), field));
+    }
+    if (hashed) {
+      return Optional.of(CodeBlock.of("$T.unmodifiableSet(new $T<>($N))",
+          Collections.class, accumulatorClass, field));
+    }
+    // the snapshot is a read-only list, which keeps the primitives
+    return Optional.of(CodeBlock.of("$N.snapshot()", field));
+  }
+
   @Override
   public ParameterSpec setterParameter(RegularParameter parameter) {
     TypeName type = withTypevars(
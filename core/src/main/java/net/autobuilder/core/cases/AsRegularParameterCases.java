@@ -1,6 +1,8 @@
 package net.autobuilder.core.cases;
 
+import net.autobuilder.core.ArrayParameter;
 import net.autobuilder.core.CollectionParameter;
+import net.autobuilder.core.NestedParameter;
 import net.autobuilder.core.OptionalParameter;
 import net.autobuilder.core.ParamCases;
 import net.autobuilder.core.RegularParameter;
@@ -21,4 +23,14 @@ public class AsRegularParameterCases implements ParamCases<RegularParameter, Voi
   public RegularParameter optionalish(OptionalParameter parameter, Void _null) {
     return parameter.parameter;
   }
+
+  @Override
+  public RegularParameter arrayish(ArrayParameter parameter, Void _null) {
+    return parameter.parameter;
+  }
+
+  @Override
+  public RegularParameter nestedish(NestedParameter parameter, Void _null) {
+    return parameter.parameter;
+  }
 }
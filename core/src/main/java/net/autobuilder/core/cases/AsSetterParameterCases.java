@@ -2,7 +2,9 @@ package net.autobuilder.core.cases;
 
 import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.TypeName;
+import net.autobuilder.core.ArrayParameter;
 import net.autobuilder.core.CollectionParameter;
+import net.autobuilder.core.NestedParameter;
 import net.autobuilder.core.OptionalParameter;
 import net.autobuilder.core.ParamCases;
 import net.autobuilder.core.RegularParameter;
@@ -27,4 +29,14 @@ public class AsSetterParameterCases implements ParamCases<ParameterSpec, Void> {
     return ParameterSpec.builder(TypeName.get(parameter.parameter.type()),
         parameter.parameter.setterName).build();
   }
+
+  @Override
+  public ParameterSpec arrayish(ArrayParameter parameter, Void _null) {
+    return parameter.parameter.asSetterParameter();
+  }
+
+  @Override
+  public ParameterSpec nestedish(NestedParameter parameter, Void _null) {
+    return parameter.parameter.asSetterParameter();
+  }
 }
@@ -3,7 +3,10 @@ package net.autobuilder.core.cases;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.ParameterSpec;
+import net.autobuilder.core.ArrayParameter;
 import net.autobuilder.core.CollectionParameter;
+import net.autobuilder.core.Model;
+import net.autobuilder.core.NestedParameter;
 import net.autobuilder.core.OptionalParameter;
 import net.autobuilder.core.ParamCases;
 import net.autobuilder.core.RegularParameter;
@@ -11,10 +14,10 @@ import net.autobuilder.core.RegularParameter;
 /**
  * Creates the code inside a setter method.
  */
-public class CodeInsideSetterCases implements ParamCases<CodeBlock, Void> {
+public class CodeInsideSetterCases implements ParamCases<CodeBlock, Model> {
 
   @Override
-  public CodeBlock parameter(RegularParameter parameter, Void _null) {
+  public CodeBlock parameter(RegularParameter parameter, Model model) {
     FieldSpec field = parameter.asField();
     ParameterSpec p = parameter.asSetterParameter();
     return CodeBlock.builder()
@@ -22,18 +25,30 @@ public class CodeInsideSetterCases implements ParamCases<CodeBlock, Void> {
   }
 
   @Override
-  public CodeBlock collectionish(CollectionParameter parameter, Void _null) {
+  public CodeBlock collectionish(CollectionParameter parameter, Model model) {
     CodeBlock.Builder builder = parameter.base.setterAssignmentCode(parameter.parameter).toBuilder();
-    parameter.asBuilderField().ifPresent(builderField ->
-        builder.addStatement("this.$N = null", builderField));
+    parameter.asBuilderField().ifPresent(builderField -> {
+      if (parameter.recyclesAccumulator(model)) {
+        builder.add(parameter.recycleAccumulatorBlock(model, builderField));
+      } else {
+        builder.addStatement("this.$N = null", builderField);
+      }
+    });
     return builder.build();
   }
 
   @Override
-  public CodeBlock optionalish(OptionalParameter parameter, Void _null) {
-    FieldSpec field = parameter.parameter.asField();
-    ParameterSpec p = parameter.asSetterParameter();
-    return CodeBlock.builder()
-        .addStatement("this.$N = $N", field, p).build();
+  public CodeBlock optionalish(OptionalParameter parameter, Model model) {
+    return parameter.setterAssignmentCode();
+  }
+
+  @Override
+  public CodeBlock arrayish(ArrayParameter parameter, Model model) {
+    return parameter.setterAssignmentCode();
+  }
+
+  @Override
+  public CodeBlock nestedish(NestedParameter parameter, Model model) {
+    return parameter.setterAssignmentCode(model);
   }
 }
@@ -1,7 +1,9 @@
 package net.autobuilder.core.cases;
 
 import com.squareup.javapoet.FieldSpec;
+import net.autobuilder.core.ArrayParameter;
 import net.autobuilder.core.CollectionParameter;
+import net.autobuilder.core.NestedParameter;
 import net.autobuilder.core.OptionalParameter;
 import net.autobuilder.core.ParamCases;
 import net.autobuilder.core.RegularParameter;
@@ -27,4 +29,14 @@ public class ExtraFieldCases implements ParamCases<Optional<FieldSpec>, Void> {
   public Optional<FieldSpec> optionalish(OptionalParameter parameter, Void _null) {
     return Optional.empty();
   }
+
+  @Override
+  public Optional<FieldSpec> arrayish(ArrayParameter parameter, Void _null) {
+    return Optional.of(parameter.asBuilderField());
+  }
+
+  @Override
+  public Optional<FieldSpec> nestedish(NestedParameter parameter, Void _null) {
+    return Optional.of(parameter.asBuilderField());
+  }
 }
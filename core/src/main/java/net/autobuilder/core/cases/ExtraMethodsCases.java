@@ -1,13 +1,16 @@
 package net.autobuilder.core.cases;
 
 import com.squareup.javapoet.MethodSpec;
+import net.autobuilder.core.ArrayParameter;
 import net.autobuilder.core.CollectionParameter;
 import net.autobuilder.core.Model;
+import net.autobuilder.core.NestedParameter;
 import net.autobuilder.core.OptionalParameter;
 import net.autobuilder.core.ParamCases;
 import net.autobuilder.core.RegularParameter;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -23,9 +26,12 @@ public class ExtraMethodsCases implements ParamCases<List<MethodSpec>, Model> {
 
   @Override
   public List<MethodSpec> collectionish(CollectionParameter parameter, Model model) {
-    List<MethodSpec> result = new ArrayList<>(2);
+    List<MethodSpec> result = new ArrayList<>(5);
     parameter.accumulatorMethod(model).ifPresent(result::add);
+    parameter.accumulatorMethodPrimitiveOverload(model).ifPresent(result::add);
     parameter.accumulatorMethodOverload(model).ifPresent(result::add);
+    parameter.accumulatorMethodArrayOverload(model).ifPresent(result::add);
+    parameter.ensureCapacityMethod(model).ifPresent(result::add);
     return result;
   }
 
@@ -35,4 +41,19 @@ public class ExtraMethodsCases implements ParamCases<List<MethodSpec>, Model> {
     parameter.convenienceOverloadMethod().ifPresent(result::add);
     return result;
   }
+
+  @Override
+  public List<MethodSpec> arrayish(ArrayParameter parameter, Model model) {
+    List<MethodSpec> result = new ArrayList<>(4);
+    parameter.appendToMethod(model).ifPresent(result::add);
+    parameter.appendAllToMethod(model).ifPresent(result::add);
+    parameter.appendAllToRangeMethod(model).ifPresent(result::add);
+    parameter.ensureCapacityMethod(model).ifPresent(result::add);
+    return result;
+  }
+
+  @Override
+  public List<MethodSpec> nestedish(NestedParameter parameter, Model model) {
+    return Arrays.asList(parameter.builderMethod(model), parameter.updateMethod(model));
+  }
 }
@@ -2,38 +2,62 @@ package net.autobuilder.core.cases;
 
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
+import net.autobuilder.core.ArrayParameter;
 import net.autobuilder.core.CollectionParameter;
+import net.autobuilder.core.Model;
+import net.autobuilder.core.NestedParameter;
 import net.autobuilder.core.OptionalParameter;
 import net.autobuilder.core.ParamCases;
 import net.autobuilder.core.RegularParameter;
 
+import java.util.Optional;
+
 /**
  * Code that evaluates to one of the builder's properties,
  * while replacing null for lists and optionals.
  */
-public class ExtractCases implements ParamCases<CodeBlock, Void> {
+public class ExtractCases implements ParamCases<CodeBlock, Model> {
 
   @Override
-  public CodeBlock parameter(RegularParameter parameter, Void _null) {
+  public CodeBlock parameter(RegularParameter parameter, Model model) {
     return CodeBlock.of("$N", parameter.asField());
   }
 
   @Override
-  public CodeBlock collectionish(CollectionParameter parameter, Void _null) {
+  public CodeBlock collectionish(CollectionParameter parameter, Model model) {
     CodeBlock.Builder code = CodeBlock.builder();
     FieldSpec field = parameter.parameter.asField();
-    parameter.asBuilderField().ifPresent(builderField ->
+    parameter.asBuilderField().ifPresent(builderField -> {
+      Optional<CodeBlock> unboxed = parameter.unboxedBuildBlock();
+      Optional<CodeBlock> recycled = parameter.recycledBuildBlock(model, builderField);
+      if (unboxed.isPresent()) {
+        code.add("$N != null ? $L : ", builderField, unboxed.get());
+      } else if (recycled.isPresent()) {
+        // a recycled accumulator may be empty
+        code.add("$N != null && !$N.isEmpty() ? $L : ",
+            builderField, builderField, recycled.get());
+      } else {
         code.add("$N != null ? $L : ",
-            builderField, parameter.base.buildBlock(builderField)));
+            builderField, parameter.base.buildBlock(builderField));
+      }
+    });
     code.add("$N != null ? $N : $L",
         field, field, parameter.base.emptyBlock());
     return code.build();
   }
 
   @Override
-  public CodeBlock optionalish(OptionalParameter parameter, Void _null) {
-    FieldSpec field = parameter.parameter.asField();
-    return CodeBlock.of("$N != null ? $N : $T.empty()",
-        field, field, parameter.wrapper);
+  public CodeBlock optionalish(OptionalParameter parameter, Model model) {
+    return parameter.buildBlock();
+  }
+
+  @Override
+  public CodeBlock arrayish(ArrayParameter parameter, Model model) {
+    return parameter.buildBlock();
+  }
+
+  @Override
+  public CodeBlock nestedish(NestedParameter parameter, Model model) {
+    return parameter.buildBlock();
   }
 }
@@ -1,6 +1,7 @@
 package net.autobuilder.core;
 
 import com.google.auto.value.processor.AutoValueProcessor;
+import com.google.testing.compile.Compilation;
 import org.junit.jupiter.api.Test;
 
 import javax.tools.JavaFileObject;
@@ -8,6 +9,8 @@ import java.util.Arrays;
 import java.util.List;
 
 import static com.google.common.truth.Truth.assertAbout;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
 import static com.google.testing.compile.JavaFileObjects.forSourceLines;
 import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
 import static java.util.Collections.singletonList;
@@ -54,4 +57,110 @@ class CollisionTest {
         .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
         .compilesWithoutError();
   }
+
+  @Test
+  void scopedUpdate() {
+
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "import java.util.function.Consumer;",
+        "",
+        "@AutoBuilder(reuse = AutoBuilder.Reuse.POOL)",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract Consumer<Object> create();",
+        "  abstract Animal update();",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .compilesWithoutError();
+  }
+
+  @Test
+  void wither() {
+
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "",
+        "@AutoBuilder",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract String x();",
+        "  abstract String X();",
+        "  abstract String withX();",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    Compilation compilation = javac()
+        .withProcessors(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .compile(javaFile);
+    assertThat(compilation).succeeded();
+    // the wither of x doesn't look like the setter of withX
+    assertThat(compilation).generatedSourceFile("test.Animal_Builder")
+        .contentsAsUtf8String().contains("static Animal _withX(Animal input, String value)");
+    assertThat(compilation).generatedSourceFile("test.Animal_Builder")
+        .contentsAsUtf8String().contains("static Animal withWithX(Animal input, String value)");
+  }
+
+  @Test
+  void transformAll() {
+
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "",
+        "@AutoBuilder(transformAll = true)",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract String transformAll();",
+        "  abstract String parallelTransformAll();",
+        "  abstract String transformRange();",
+        "  abstract TransformTask task();",
+        "",
+        "  static class TransformTask {",
+        "  }",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    Compilation compilation = javac()
+        .withProcessors(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .compile(javaFile);
+    assertThat(compilation).succeeded();
+    String builder = "test.Animal_Builder";
+    assertThat(compilation).generatedSourceFile(builder)
+        .contentsAsUtf8String().contains("static List<Animal> _transformAll(List<? extends Animal> input,");
+    assertThat(compilation).generatedSourceFile(builder)
+        .contentsAsUtf8String().contains("static Animal[] _parallelTransformAll(Animal[] input,");
+    assertThat(compilation).generatedSourceFile(builder)
+        .contentsAsUtf8String().contains("private static void _transformRange(Animal[] input,");
+    assertThat(compilation).generatedSourceFile(builder)
+        .contentsAsUtf8String().contains("private static final class _TransformTask extends RecursiveAction");
+  }
+
+  @Test
+  void existingLensesClass() {
+
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "",
+        "@AutoBuilder",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract String name();",
+        "}",
+        "",
+        "class Animal_Lenses {",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .failsToCompile()
+        .withErrorContaining("Cannot generate test.Animal_Lenses, because a type with this name already exists.");
+  }
 }
@@ -0,0 +1,46 @@
+package net.autobuilder.core;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A plugin that can be recycled, but has no unboxed build.
+ */
+public final class CopyOnWriteListPlugin extends CollectionPlugin {
+
+  private static final ClassName LIST = ClassName.get(CopyOnWriteArrayList.class);
+
+  @Override
+  public String collectionClassName() {
+    return "java.util.concurrent.CopyOnWriteArrayList";
+  }
+
+  @Override
+  public String accumulatorClassName() {
+    return "java.util.ArrayList";
+  }
+
+  @Override
+  public CodeBlock accumulatorInitBlock() {
+    return CodeBlock.of("new $T<>()", ArrayList.class);
+  }
+
+  @Override
+  public CodeBlock buildBlock(CodeBlock accumulator) {
+    return CodeBlock.of("new $T<>($L)", LIST, accumulator);
+  }
+
+  @Override
+  public Optional<CodeBlock> copyBlock(CodeBlock accumulator) {
+    return Optional.of(buildBlock(accumulator));
+  }
+
+  @Override
+  public CodeBlock emptyBlock() {
+    return CodeBlock.of("new $T<>()", LIST);
+  }
+}
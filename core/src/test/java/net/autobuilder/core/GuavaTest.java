@@ -35,6 +35,90 @@ class GuavaTest {
         .compilesWithoutError();
   }
 
+  @Test
+  void immutablePrimitiveArrays() {
+
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "import com.google.common.primitives.ImmutableDoubleArray;",
+        "import com.google.common.primitives.ImmutableIntArray;",
+        "import com.google.common.primitives.ImmutableLongArray;",
+        "",
+        "@AutoBuilder(reuse = AutoBuilder.Reuse.THREAD_LOCAL, lazyToBuilder = true, recycleAccumulators = true)",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract ImmutableIntArray legs();",
+        "  abstract ImmutableLongArray feathers();",
+        "  abstract ImmutableDoubleArray wings();",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .compilesWithoutError();
+  }
+
+  @Test
+  void multimapsTablesAndSortedCollections() {
+
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "import com.google.common.collect.ImmutableListMultimap;",
+        "import com.google.common.collect.ImmutableMultiset;",
+        "import com.google.common.collect.ImmutableSetMultimap;",
+        "import com.google.common.collect.ImmutableSortedMap;",
+        "import com.google.common.collect.ImmutableSortedSet;",
+        "import com.google.common.collect.ImmutableTable;",
+        "import java.util.Date;",
+        "",
+        "@AutoBuilder(reuse = AutoBuilder.Reuse.THREAD_LOCAL, lazyToBuilder = true, recycleAccumulators = true)",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract ImmutableListMultimap<String, Date> feathers();",
+        "  abstract ImmutableSetMultimap<String, Integer> legs();",
+        "  @AutoBuilder.Capacity(4) abstract ImmutableMultiset<String> eyes();",
+        "  abstract ImmutableSortedSet<Date> wings();",
+        "  abstract ImmutableSortedMap<String, Date> claws();",
+        "  abstract ImmutableTable<String, Integer, Date> spots();",
+        "  abstract ImmutableSortedSet<Object> notComparable();",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .compilesWithoutError();
+  }
+
+  @Test
+  void immutableBiMapPlugin() {
+
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "import com.google.common.collect.ImmutableBiMap;",
+        "import java.util.Date;",
+        "",
+        "@AutoBuilder(reuse = AutoBuilder.Reuse.THREAD_LOCAL, lazyToBuilder = true, recycleAccumulators = true)",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  @AutoBuilder.Capacity(4) abstract ImmutableBiMap<String, Date> feathers();",
+        "  abstract ImmutableBiMap<String, Integer> legs();",
+        "",
+        "  static Animal_Builder fill(Animal_Builder builder) {",
+        "    return builder.putInFeathers(\"a\", new Date())",
+        "        .putInLegs(java.util.Collections.singletonMap(\"b\", 1))",
+        "        .ensureCapacityForLegs(2);",
+        "  }",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .compilesWithoutError();
+  }
+
   @Test
   void emptyBlock() {
 
@@ -2,8 +2,13 @@ package net.autobuilder.core;
 
 import com.google.auto.value.processor.AutoValueProcessor;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import javax.tools.JavaFileObject;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 
@@ -127,4 +132,133 @@ class ListTest {
         .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
         .compilesWithoutError();
   }
+
+  @Test
+  void capacity() {
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "import com.google.common.collect.ImmutableMap;",
+        "import java.util.List;",
+        "import java.util.Set;",
+        "",
+        "@AutoBuilder",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  @AutoBuilder.Capacity(16) abstract List<String> feathers();",
+        "  @AutoBuilder.Capacity(4) abstract Set<String> wings();",
+        "  @AutoBuilder.Capacity(8) abstract ImmutableMap<String, Integer> eggs();",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .compilesWithoutError();
+  }
+
+  @Test
+  void capacityWithoutCollection() {
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "",
+        "@AutoBuilder",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  @AutoBuilder.Capacity(16) abstract String name();",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .failsToCompile()
+        .withErrorContaining("Capacity can only be used on a collection property.");
+  }
+
+  @Test
+  void jdkImmutableCollections() {
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "import java.util.List;",
+        "import java.util.Map;",
+        "import java.util.Set;",
+        "",
+        "@AutoBuilder(reuse = AutoBuilder.Reuse.THREAD_LOCAL, recycleAccumulators = true,",
+        "    jdkImmutableCollections = true, unboxedAccumulators = true)",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract List<String> names();",
+        "  abstract Set<Integer> legs();",
+        "  abstract Map<String, List<? extends Number>> claws();",
+        "  abstract List<? extends CharSequence> feathers();",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .compilesWithoutError();
+  }
+
+  @Test
+  void pluginWithRecycleAccumulators() {
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "import java.util.concurrent.CopyOnWriteArrayList;",
+        "",
+        "@AutoBuilder(reuse = AutoBuilder.Reuse.THREAD_LOCAL, recycleAccumulators = true)",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract CopyOnWriteArrayList<String> names();",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .compilesWithoutError();
+  }
+
+  @Test
+  void pluginWithoutUnboxedBuild() {
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "import java.util.concurrent.CopyOnWriteArrayList;",
+        "",
+        "@AutoBuilder(unboxedAccumulators = true)",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract CopyOnWriteArrayList<Integer> legs();",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .failsToCompile()
+        .withErrorContaining("unboxedAccumulators is not supported for java.util.concurrent.CopyOnWriteArrayList.");
+  }
+
+  @Test
+  void brokenPlugin(@TempDir Path classpath) throws Exception {
+    Path services = Files.createDirectories(classpath.resolve("META-INF/services"));
+    Files.write(services.resolve(CollectionPlugin.class.getName()), singletonList("test.MissingPlugin"));
+    ClassLoader pluginLoader = new URLClassLoader(new URL[]{classpath.toUri().toURL()},
+        CollectionPlugin.class.getClassLoader());
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "",
+        "@AutoBuilder",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract String name();",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(false, pluginLoader), new AutoValueProcessor())
+        .failsToCompile()
+        .withErrorContaining("Could not load collection plugin:");
+  }
 }
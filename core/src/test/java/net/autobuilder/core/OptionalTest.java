@@ -127,4 +127,28 @@ class OptionalTest {
         .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
         .compilesWithoutError();
   }
+
+  @Test
+  void returnSourceIfUnchanged() {
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "import java.util.Optional;",
+        "import java.util.OptionalDouble;",
+        "import java.util.OptionalLong;",
+        "",
+        "@AutoBuilder(returnSourceIfUnchanged = true, compareWithEquals = true)",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract Optional<String> name();",
+        "  abstract OptionalDouble weight();",
+        "  abstract OptionalLong age();",
+        "  abstract Optional<Optional<String>> feathers();",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .compilesWithoutError();
+  }
 }
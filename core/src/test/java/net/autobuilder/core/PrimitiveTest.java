@@ -33,4 +33,87 @@ class PrimitiveTest {
         .compilesWithoutError();
   }
 
+  @Test
+  void primitiveArrays() {
+
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "",
+        "@AutoBuilder(reuse = AutoBuilder.Reuse.THREAD_LOCAL, lazyToBuilder = true,",
+        "    returnSourceIfUnchanged = true, arrayAccumulators = true)",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  @AutoBuilder.Capacity(64) abstract byte[] data();",
+        "  @AutoBuilder.DefensiveCopy abstract double[] weights();",
+        "  abstract boolean[] flags();",
+        "  abstract char[] chars();",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .compilesWithoutError();
+  }
+
+  @Test
+  void defensiveCopyWithoutArray() {
+
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "import java.util.List;",
+        "",
+        "@AutoBuilder",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  @AutoBuilder.DefensiveCopy abstract List<Integer> legs();",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .failsToCompile()
+        .withErrorContaining("DefensiveCopy can only be used on an array property.");
+  }
+
+  @Test
+  void appendAllToCollision() {
+
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "",
+        "@AutoBuilder(arrayAccumulators = true)",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract byte[] data();",
+        "  abstract byte[] appendAllToData();",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .compilesWithoutError();
+  }
+
+  @Test
+  void defensiveCopyWithoutArrayAccumulators() {
+
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "",
+        "@AutoBuilder",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  @AutoBuilder.DefensiveCopy abstract byte[] data();",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .failsToCompile()
+        .withErrorContaining("DefensiveCopy requires arrayAccumulators = true.");
+  }
 }
@@ -1,16 +1,26 @@
 package net.autobuilder.core;
 
 import com.google.auto.value.processor.AutoValueProcessor;
+import com.google.testing.compile.Compilation;
 import org.junit.jupiter.api.Test;
 
 import javax.tools.JavaFileObject;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static com.google.common.truth.Truth.assertAbout;
+import static com.google.testing.compile.CompilationSubject.assertThat;
+import static com.google.testing.compile.Compiler.javac;
 import static com.google.testing.compile.JavaFileObjects.forSourceLines;
 import static com.google.testing.compile.JavaSourcesSubjectFactory.javaSources;
 import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ReuseTest {
 
@@ -33,4 +43,396 @@ class ReuseTest {
         .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
         .compilesWithoutError();
   }
+
+  @Test
+  void pool() {
+
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "import com.google.common.collect.ImmutableMap;",
+        "",
+        "@AutoBuilder(reuse = AutoBuilder.Reuse.POOL)",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract ImmutableMap<String, Integer> legs();",
+        "  abstract String name();",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .compilesWithoutError();
+  }
+
+  @Test
+  void conflictingReuse() {
+
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "",
+        "@AutoBuilder(reuseBuilder = true, reuse = AutoBuilder.Reuse.POOL)",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract String name();",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .failsToCompile()
+        .withErrorContaining("reuseBuilder = true cannot be combined with reuse = POOL.");
+  }
+
+  @Test
+  void stackedBuildersAreReused() throws Exception {
+    Supplier<Object[]> nestedBuilds = nestedBuilds(3);
+    Object[] round_1 = nestedBuilds.get();
+    Object[] round_2 = nestedBuilds.get();
+    for (int i = 0; i < 3; i++) {
+      assertSame(round_1[i], round_2[i], "builder " + i + " is not reused");
+    }
+    assertNotSame(round_1[0], round_1[1]);
+    assertNotSame(round_1[1], round_1[2]);
+  }
+
+  @Test
+  void stackedBuildersBeyondDepth() throws Exception {
+    Supplier<Object[]> nestedBuilds = nestedBuilds(2);
+    Object[] round_1 = nestedBuilds.get();
+    Object[] round_2 = nestedBuilds.get();
+    List<Object> reused = new ArrayList<>(Arrays.asList(round_2));
+    reused.retainAll(Arrays.asList(round_1));
+    assertEquals(2, reused.size(), "expecting exactly one new builder");
+  }
+
+  @Test
+  void stackedBuildersBeyondDepthAreOverflows() throws Exception {
+    Object[] result = (Object[]) compileNest(2)
+        .newInstance("test.Counters", Supplier.class).get();
+    assertEquals(1L, result[0], "expecting one overflow");
+    assertEquals(0L, result[1], "expecting no abandoned builders");
+  }
+
+  @Test
+  void abandonedBuilderIsReclaimed() throws Exception {
+    Object[] result = (Object[]) compileNest(3)
+        .newInstance("test.Abandon", Supplier.class).get();
+    assertEquals(1L, result[0], "expecting the abandoned builder to be replaced");
+    assertEquals(0L, result[1], "expecting no further replacements");
+    assertEquals(0L, result[4], "expecting no overflows");
+    Object[] round_1 = (Object[]) result[2];
+    Object[] round_2 = (Object[]) result[3];
+    List<Object> reused = new ArrayList<>(Arrays.asList(round_2));
+    reused.retainAll(Arrays.asList(round_1));
+    assertEquals(3, reused.size(), "expecting all builders to be reused");
+  }
+
+  @Test
+  void invalidDepth() {
+
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "",
+        "@AutoBuilder(reuse = AutoBuilder.Reuse.POOL, reuseDepth = 2)",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract String name();",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .failsToCompile()
+        .withErrorContaining("reuseDepth requires reuse = THREAD_LOCAL.");
+  }
+
+  @Test
+  void dirtyTrackingWithoutReuseHasResetMethods() {
+
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "",
+        "@AutoBuilder(dirtyTracking = true)",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract String name();",
+        "",
+        "  static Animal rename(Animal_Builder builder, Animal input) {",
+        "    return builder.reset(input).name(\"Bob\").buildAndReset();",
+        "  }",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .compilesWithoutError();
+  }
+
+  @Test
+  void noResetMethodsWithoutResettable() {
+
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "",
+        "@AutoBuilder",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract String name();",
+        "",
+        "  static Animal rename(Animal_Builder builder) {",
+        "    return builder.name(\"Bob\").buildAndReset();",
+        "  }",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .failsToCompile()
+        .withErrorContaining("buildAndReset");
+  }
+
+  @Test
+  void transformAllWithoutSerialWarning() {
+
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "import java.util.List;",
+        "",
+        "@AutoBuilder(transformAll = true)",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract String name();",
+        "",
+        "  static List<Animal> rename(List<Animal> animals) {",
+        "    return Animal_Builder.parallelTransformAll(animals, builder -> builder.name(\"Bob\"));",
+        "  }",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    Compilation compilation = javac()
+        .withProcessors(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .withOptions("-Xlint:serial")
+        .compile(javaFile);
+    assertThat(compilation).succeeded();
+    assertTrue(compilation.warnings().stream()
+        .noneMatch(warning -> warning.getMessage(null).contains("serialVersionUID")));
+  }
+
+  @Test
+  void noTransformAllWithoutOption() {
+
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "import java.util.List;",
+        "",
+        "@AutoBuilder(resettable = true)",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract String name();",
+        "",
+        "  static List<Animal> rename(List<Animal> animals) {",
+        "    return Animal_Builder.transformAll(animals, builder -> builder.name(\"Bob\"));",
+        "  }",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .failsToCompile()
+        .withErrorContaining("transformAll");
+  }
+
+  @Test
+  void dirtyTrackingResetsWrittenProperties() throws Exception {
+    int width = 70;
+    List<String> wide = new ArrayList<>(Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "import java.util.List;",
+        "",
+        "@AutoBuilder(reuse = AutoBuilder.Reuse.THREAD_LOCAL, dirtyTracking = true)",
+        "@AutoValue",
+        "abstract class Wide {"));
+    for (int i = 0; i < width; i++) {
+      wide.add(i % 2 == 0 ? "  abstract int p" + i + "();" : "  abstract List<String> p" + i + "();");
+    }
+    wide.add("}");
+    JavaFileObject probe = forSourceLines("test.Probe",
+        "package test;",
+        "import java.util.function.Supplier;",
+        "",
+        "public class Probe implements Supplier<Object[]> {",
+        "  public Object[] get() {",
+        "    Wide_Builder builder = Wide_Builder.builder();",
+        "    Wide first = builder.p2(2).addToP3(\"3\").p68(68).addToP69(\"69\").build();",
+        "    Wide second = Wide_Builder.builder().build();",
+        "    Wide third = Wide_Builder.builder(first).p4(4).build();",
+        "    Wide fourth = Wide_Builder.builder().build();",
+        "    return new Object[]{first, second, third, fourth, builder == Wide_Builder.builder()};",
+        "  }",
+        "}");
+    Object[] result = (Object[]) TestClassLoader.compile(forSourceLines("test.Wide", wide), probe)
+        .newInstance("test.Probe", Supplier.class).get();
+    String first = result[0].toString();
+    String second = result[1].toString();
+    String third = result[2].toString();
+    String fourth = result[3].toString();
+    assertTrue(first.contains("p2=2,") && first.contains("p3=[3],"), first);
+    assertTrue(first.contains("p68=68,") && first.contains("p69=[69]}"), first);
+    assertEquals(second, fourth);
+    assertFalse(second.contains("p2=2,") || second.contains("p3=[3],"), second);
+    assertFalse(second.contains("p68=68,") || second.contains("p69=[69]"), second);
+    assertTrue(third.contains("p2=2,") && third.contains("p4=4,") && third.contains("p69=[69]}"), third);
+    assertEquals(true, result[4], "builder is not reused");
+  }
+
+  @Test
+  void maxRetainedCapacityWithoutRecycling() {
+
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "import java.util.List;",
+        "",
+        "@AutoBuilder(reuse = AutoBuilder.Reuse.POOL, maxRetainedCapacity = 16)",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract List<String> names();",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .failsToCompile()
+        .withErrorContaining("maxRetainedCapacity requires recycleAccumulators = true.");
+  }
+
+  @Test
+  void recycleAccumulators() {
+
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "import com.google.common.collect.ImmutableSet;",
+        "import java.util.List;",
+        "import java.util.Map;",
+        "import java.util.Set;",
+        "",
+        "@AutoBuilder(reuse = AutoBuilder.Reuse.POOL, recycleAccumulators = true, dirtyTracking = true)",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract List<String> names();",
+        "  abstract Set<String> nicknames();",
+        "  abstract Map<String, String> map();",
+        "  abstract ImmutableSet<String> set();",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .compilesWithoutError();
+  }
+
+  @Test
+  void compareWithEqualsWithoutReturnSource() {
+
+    List<String> sourceLines = Arrays.asList(
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "",
+        "@AutoBuilder(compareWithEquals = true)",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract String name();",
+        "}");
+    JavaFileObject javaFile = forSourceLines("test.Animal", sourceLines);
+    assertAbout(javaSources()).that(singletonList(javaFile))
+        .processedWith(new AutoBuilderProcessor(), new AutoValueProcessor())
+        .failsToCompile()
+        .withErrorContaining("compareWithEquals requires returnSourceIfUnchanged = true.");
+  }
+
+  /**
+   * Creates a supplier that runs three stacked builder calls,
+   * and returns the three builder instances that were used.
+   */
+  @SuppressWarnings("unchecked")
+  private static Supplier<Object[]> nestedBuilds(int depth) throws Exception {
+    return compileNest(depth).newInstance("test.Nest", Supplier.class);
+  }
+
+  /**
+   * Compiles {@code test.Nest}, {@code test.Abandon}, which
+   * abandons a builder before it runs {@code test.Nest} twice,
+   * and {@code test.Counters}, which runs {@code test.Nest} once
+   * and returns the number of overflows and abandoned builders.
+   */
+  private static TestClassLoader compileNest(int depth) throws Exception {
+    JavaFileObject animal = forSourceLines("test.Animal",
+        "package test;",
+        "import net.autobuilder.AutoBuilder;",
+        "import com.google.auto.value.AutoValue;",
+        "",
+        "@AutoBuilder(reuse = AutoBuilder.Reuse.THREAD_LOCAL, reuseDepth = " + depth + ")",
+        "@AutoValue",
+        "abstract class Animal {",
+        "  abstract String name();",
+        "  abstract int numberOfLegs();",
+        "}");
+    JavaFileObject nest = forSourceLines("test.Nest",
+        "package test;",
+        "import java.util.function.Supplier;",
+        "",
+        "public class Nest implements Supplier<Object[]> {",
+        "  public Object[] get() {",
+        "    Animal_Builder a = Animal_Builder.builder();",
+        "    Animal_Builder b = Animal_Builder.builder();",
+        "    Animal_Builder c = Animal_Builder.builder();",
+        "    Animal animal = a.name(b.name(c.name(\"c\").build().name() + \"b\").build().name() + \"a\").build();",
+        "    if (!animal.name().equals(\"cba\")) throw new AssertionError(animal);",
+        "    return new Object[]{a, b, c};",
+        "  }",
+        "}");
+    JavaFileObject abandon = forSourceLines("test.Abandon",
+        "package test;",
+        "import java.util.function.Supplier;",
+        "",
+        "public class Abandon implements Supplier<Object[]> {",
+        "  public Object[] get() {",
+        "    Animal_Builder.builder().name(\"abandoned\");",
+        "    Nest nest = new Nest();",
+        "    long before = Animal_Builder.abandonedBuilders();",
+        "    long overflows = Animal_Builder.overflowBuilders();",
+        "    Object[] round_1 = nest.get();",
+        "    long after_1 = Animal_Builder.abandonedBuilders();",
+        "    Object[] round_2 = nest.get();",
+        "    long after_2 = Animal_Builder.abandonedBuilders();",
+        "    return new Object[]{after_1 - before, after_2 - after_1, round_1, round_2,",
+        "        Animal_Builder.overflowBuilders() - overflows};",
+        "  }",
+        "}");
+    JavaFileObject counters = forSourceLines("test.Counters",
+        "package test;",
+        "import java.util.function.Supplier;",
+        "",
+        "public class Counters implements Supplier<Object[]> {",
+        "  public Object[] get() {",
+        "    long overflows = Animal_Builder.overflowBuilders();",
+        "    long abandoned = Animal_Builder.abandonedBuilders();",
+        "    new Nest().get();",
+        "    return new Object[]{Animal_Builder.overflowBuilders() - overflows,",
+        "        Animal_Builder.abandonedBuilders() - abandoned};",
+        "  }",
+        "}");
+    return TestClassLoader.compile(animal, nest, abandon, counters);
+  }
 }
@@ -0,0 +1,74 @@
+package net.autobuilder.core;
+
+import com.google.auto.value.processor.AutoValueProcessor;
+import com.google.testing.compile.Compilation;
+import com.google.testing.compile.Compiler;
+
+import javax.tools.JavaFileObject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.google.testing.compile.Compiler.javac;
+
+/**
+ * Compiles some sources with auto-value and auto-builder,
+ * and loads the resulting classes, so the generated code can be run.
+ */
+final class TestClassLoader extends ClassLoader {
+
+  private static final String CLASS_OUTPUT = "/CLASS_OUTPUT/";
+
+  private final Map<String, byte[]> classes;
+
+  private TestClassLoader(Map<String, byte[]> classes) {
+    super(TestClassLoader.class.getClassLoader());
+    this.classes = classes;
+  }
+
+  static TestClassLoader compile(JavaFileObject... sources) throws IOException {
+    Compiler compiler = javac().withProcessors(new AutoBuilderProcessor(), new AutoValueProcessor());
+    Compilation compilation = compiler.compile(sources);
+    if (compilation.status() != Compilation.Status.SUCCESS) {
+      throw new AssertionError("Compilation failed: " + compilation.errors());
+    }
+    Map<String, byte[]> classes = new HashMap<>();
+    for (JavaFileObject file : compilation.generatedFiles()) {
+      if (file.getKind() != JavaFileObject.Kind.CLASS) {
+        continue;
+      }
+      String path = file.toUri().getPath();
+      String name = path.substring(path.indexOf(CLASS_OUTPUT) + CLASS_OUTPUT.length(),
+          path.length() - ".class".length()).replace('/', '.');
+      classes.put(name, readAll(file));
+    }
+    return new TestClassLoader(classes);
+  }
+
+  <E> E newInstance(String className, Class<E> type) throws ReflectiveOperationException {
+    return type.cast(loadClass(className).getConstructor().newInstance());
+  }
+
+  @Override
+  protected Class<?> findClass(String name) throws ClassNotFoundException {
+    byte[] bytes = classes.get(name);
+    if (bytes == null) {
+      throw new ClassNotFoundException(name);
+    }
+    return defineClass(name, bytes, 0, bytes.length);
+  }
+
+  private static byte[] readAll(JavaFileObject file) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[4096];
+    try (InputStream in = file.openInputStream()) {
+      int n;
+      while ((n = in.read(buffer)) != -1) {
+        out.write(buffer, 0, n);
+      }
+    }
+    return out.toByteArray();
+  }
+}
@@ -5,7 +5,7 @@ import net.autobuilder.AutoBuilder;
 
 import java.util.Optional;
 
-@AutoBuilder(reuseBuilder = true)
+@AutoBuilder(reuseBuilder = true, transformAll = true)
 @AutoValue
 abstract class Animal {
 
@@ -31,7 +31,7 @@ abstract class Bird {
     return Bird_Builder.builder(this);
   }
 
-  @AutoBuilder
+  @AutoBuilder(resettable = true)
   @AutoValue
   static abstract class Nest {
     abstract ImmutableList<? extends Iterable<? extends String>> feathers();
@@ -0,0 +1,17 @@
+package net.autobuilder.examples;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableBiMap;
+import net.autobuilder.AutoBuilder;
+
+// ImmutableBiMap is provided by the bundled BiMapPlugin
+@AutoBuilder
+@AutoValue
+abstract class BondedBison {
+
+  abstract ImmutableBiMap<String, Integer> tags();
+
+  BondedBison_Builder toBuilder() {
+    return BondedBison_Builder.toBuilder(this);
+  }
+}
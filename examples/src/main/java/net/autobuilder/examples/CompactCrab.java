@@ -0,0 +1,29 @@
+package net.autobuilder.examples;
+
+import com.google.auto.value.AutoValue;
+import net.autobuilder.AutoBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@AutoBuilder(jdkImmutableCollections = true, enumAccumulators = true)
+@AutoValue
+abstract class CompactCrab {
+
+  enum Claw {
+    LEFT, RIGHT
+  }
+
+  abstract List<String> names();
+
+  abstract Set<Integer> shells();
+
+  abstract Map<String, Integer> depths();
+
+  abstract Set<Claw> claws();
+
+  CompactCrab_Builder toBuilder() {
+    return CompactCrab_Builder.toBuilder(this);
+  }
+}
@@ -0,0 +1,30 @@
+package net.autobuilder.examples;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+import net.autobuilder.AutoBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@AutoBuilder(reuse = AutoBuilder.Reuse.THREAD_LOCAL, lazyToBuilder = true)
+@AutoValue
+abstract class LazyLlama {
+
+  abstract String name();
+
+  abstract int numberOfLegs();
+
+  abstract Optional<String> nickname();
+
+  abstract List<String> toys();
+
+  abstract ImmutableList<String> friends();
+
+  abstract Map<String, String> meals();
+
+  final LazyLlama_Builder toBuilder() {
+    return LazyLlama_Builder.toBuilder(this);
+  }
+}
@@ -0,0 +1,35 @@
+package net.autobuilder.examples;
+
+import com.google.auto.value.AutoValue;
+import net.autobuilder.AutoBuilder;
+
+import java.util.List;
+
+@AutoBuilder
+@AutoValue
+abstract class NestingNewt {
+
+  abstract String name();
+
+  abstract Pond pond();
+
+  final NestingNewt_Builder toBuilder() {
+    return NestingNewt_Builder.toBuilder(this);
+  }
+
+  @AutoBuilder(resettable = true)
+  @AutoValue
+  static abstract class Pond {
+
+    abstract String name();
+
+    abstract List<String> stones();
+  }
+
+  @AutoBuilder(reuse = AutoBuilder.Reuse.THREAD_LOCAL)
+  @AutoValue
+  static abstract class Eft {
+
+    abstract Pond pond();
+  }
+}
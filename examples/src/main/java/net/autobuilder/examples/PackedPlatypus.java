@@ -0,0 +1,24 @@
+package net.autobuilder.examples;
+
+import com.google.auto.value.AutoValue;
+import net.autobuilder.AutoBuilder;
+
+@AutoBuilder(arrayAccumulators = true)
+@AutoValue
+abstract class PackedPlatypus {
+
+  @SuppressWarnings("mutable")
+  @AutoBuilder.Capacity(4)
+  abstract byte[] eggs();
+
+  @SuppressWarnings("mutable")
+  abstract long[] dives();
+
+  @SuppressWarnings("mutable")
+  @AutoBuilder.DefensiveCopy
+  abstract int[] spurs();
+
+  PackedPlatypus_Builder toBuilder() {
+    return PackedPlatypus_Builder.toBuilder(this);
+  }
+}
@@ -0,0 +1,40 @@
+package net.autobuilder.examples;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import net.autobuilder.AutoBuilder;
+
+import java.util.Map;
+import java.util.Set;
+
+@AutoBuilder(reuse = AutoBuilder.Reuse.THREAD_LOCAL, recycleAccumulators = true,
+    enumAccumulators = true)
+@AutoValue
+abstract class PermittedPanda {
+
+  enum Permission {
+    READ, WRITE, EXECUTE
+  }
+
+  abstract Set<Permission> permissions();
+
+  abstract Map<Permission, String> reasons();
+
+  abstract ImmutableSet<Permission> flags();
+
+  abstract ImmutableMap<Permission, Integer> limits();
+
+  PermittedPanda_Builder toBuilder() {
+    return PermittedPanda_Builder.toBuilder(this);
+  }
+
+  // without enumAccumulators
+  @AutoBuilder
+  @AutoValue
+  static abstract class Cub {
+    abstract Set<Permission> permissions();
+
+    abstract ImmutableMap<Permission, Integer> limits();
+  }
+}
@@ -0,0 +1,25 @@
+package net.autobuilder.examples;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+import net.autobuilder.AutoBuilder;
+
+import java.util.List;
+
+@AutoBuilder(persistentLists = true, dirtyTracking = true)
+@AutoValue
+abstract class PersistentPuffin {
+
+  abstract String name();
+
+  abstract List<String> fish();
+
+  @AutoBuilder.Capacity(2)
+  abstract List<Integer> dives();
+
+  abstract ImmutableList<String> eggs();
+
+  PersistentPuffin_Builder toBuilder() {
+    return PersistentPuffin_Builder.toBuilder(this);
+  }
+}
@@ -0,0 +1,27 @@
+package net.autobuilder.examples;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+import net.autobuilder.AutoBuilder;
+
+@AutoBuilder(reuse = AutoBuilder.Reuse.POOL)
+@AutoValue
+abstract class PooledPelican {
+
+  abstract String name();
+
+  abstract ImmutableList<String> fish();
+
+  final PooledPelican_Builder toBuilder() {
+    return PooledPelican_Builder.toBuilder(this);
+  }
+
+  @AutoBuilder(reuse = AutoBuilder.Reuse.POOL)
+  @AutoValue
+  static abstract class Chick {
+
+    abstract String name();
+
+    abstract PooledPelican mother();
+  }
+}
@@ -0,0 +1,24 @@
+package net.autobuilder.examples;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+import net.autobuilder.AutoBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@AutoBuilder(reuse = AutoBuilder.Reuse.THREAD_LOCAL, recycleAccumulators = true, maxRetainedCapacity = 4)
+@AutoValue
+abstract class RecycledRaven {
+
+  abstract String name();
+
+  abstract List<String> feathers();
+
+  abstract Set<String> claws();
+
+  abstract Map<String, Integer> nests();
+
+  abstract ImmutableList<String> eggs();
+}
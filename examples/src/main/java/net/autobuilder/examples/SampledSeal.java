@@ -0,0 +1,23 @@
+package net.autobuilder.examples;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.primitives.ImmutableDoubleArray;
+import com.google.common.primitives.ImmutableIntArray;
+import com.google.common.primitives.ImmutableLongArray;
+import net.autobuilder.AutoBuilder;
+
+@AutoBuilder
+@AutoValue
+abstract class SampledSeal {
+
+  abstract ImmutableIntArray dives();
+
+  @AutoBuilder.Capacity(64)
+  abstract ImmutableLongArray timestamps();
+
+  abstract ImmutableDoubleArray depths();
+
+  SampledSeal_Builder toBuilder() {
+    return SampledSeal_Builder.toBuilder(this);
+  }
+}
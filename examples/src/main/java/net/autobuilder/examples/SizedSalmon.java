@@ -0,0 +1,28 @@
+package net.autobuilder.examples;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+import net.autobuilder.AutoBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@AutoBuilder
+@AutoValue
+abstract class SizedSalmon {
+
+  @AutoBuilder.Capacity(32)
+  abstract List<String> scales();
+
+  abstract Set<String> rivers();
+
+  @AutoBuilder.Capacity(8)
+  abstract Map<String, Integer> spawns();
+
+  abstract ImmutableList<String> eggs();
+
+  SizedSalmon_Builder toBuilder() {
+    return SizedSalmon_Builder.toBuilder(this);
+  }
+}
@@ -0,0 +1,44 @@
+package net.autobuilder.examples;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableSet;
+import net.autobuilder.AutoBuilder;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+@AutoBuilder(returnSourceIfUnchanged = true, resettable = true)
+@AutoValue
+abstract class SteadySheep {
+
+  abstract String name();
+
+  abstract double weight();
+
+  abstract Optional<String> nickname();
+
+  abstract OptionalInt age();
+
+  abstract List<String> wool();
+
+  abstract ImmutableSet<String> friends();
+
+  final SteadySheep_Builder toBuilder() {
+    return SteadySheep_Builder.toBuilder(this);
+  }
+
+  @AutoBuilder(reuse = AutoBuilder.Reuse.THREAD_LOCAL, lazyToBuilder = true,
+      returnSourceIfUnchanged = true, compareWithEquals = true)
+  @AutoValue
+  static abstract class Lamb {
+
+    abstract String name();
+
+    abstract List<String> wool();
+
+    final SteadySheep_Lamb_Builder toBuilder() {
+      return SteadySheep_Lamb_Builder.toBuilder(this);
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package net.autobuilder.examples;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.ImmutableTable;
+import net.autobuilder.AutoBuilder;
+
+@AutoBuilder
+@AutoValue
+abstract class TaggedTapir {
+
+  abstract ImmutableListMultimap<String, Integer> sightings();
+
+  abstract ImmutableSetMultimap<String, String> tags();
+
+  abstract ImmutableMultiset<String> visits();
+
+  abstract ImmutableSortedSet<String> names();
+
+  abstract ImmutableSortedMap<String, Integer> heights();
+
+  abstract ImmutableTable<String, Integer, Double> grid();
+
+  TaggedTapir_Builder toBuilder() {
+    return TaggedTapir_Builder.toBuilder(this);
+  }
+}
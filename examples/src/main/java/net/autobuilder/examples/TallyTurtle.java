@@ -0,0 +1,28 @@
+package net.autobuilder.examples;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import net.autobuilder.AutoBuilder;
+
+import java.util.List;
+import java.util.Set;
+
+@AutoBuilder(unboxedAccumulators = true)
+@AutoValue
+abstract class TallyTurtle {
+
+  abstract List<Long> ids();
+
+  abstract Set<Integer> nests();
+
+  abstract ImmutableList<Double> weights();
+
+  abstract ImmutableSet<Long> beaches();
+
+  abstract List<String> names();
+
+  TallyTurtle_Builder toBuilder() {
+    return TallyTurtle_Builder.toBuilder(this);
+  }
+}
@@ -3,6 +3,9 @@ package net.autobuilder.examples;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -60,4 +63,73 @@ class AnimalTest {
     Assertions.assertSame(builder_1, builder_2,
         "builders are not reused");
   }
-}
\ No newline at end of file
+
+  @Test
+  void testReusedBuilderIsReset() {
+    Animal spiderPig = Animal_Builder.builder()
+        .name("Spider-Pig")
+        .numberOfLegs(4)
+        .good(true)
+        .maybe("yo")
+        .build();
+    Animal empty = Animal_Builder.builder().name("").build();
+    assertEquals(4, spiderPig.getNumberOfLegs());
+    assertEquals(0, empty.getNumberOfLegs());
+    assertFalse(empty.isGood());
+    assertEquals(Optional.empty(), empty.maybe());
+  }
+
+  @Test
+  void testBuildAndReset() {
+    Animal_Builder builder = Animal_Builder.builder();
+    Animal spiderPig = builder.name("Spider-Pig").numberOfLegs(4).maybe("yo").buildAndReset();
+    Animal horse = builder.name("Horse").buildAndReset();
+    Animal badger = builder.reset(spiderPig).name("Badger").buildAndReset();
+    Animal snake = builder.name("Snake").reset().name("Snake").build();
+    assertEquals(4, spiderPig.getNumberOfLegs());
+    assertEquals(Optional.of("yo"), spiderPig.maybe());
+    assertEquals("Horse", horse.getName());
+    assertEquals(0, horse.getNumberOfLegs());
+    assertEquals(Optional.empty(), horse.maybe());
+    assertEquals("Badger", badger.getName());
+    assertEquals(4, badger.getNumberOfLegs());
+    assertEquals(Optional.of("yo"), badger.maybe());
+    assertEquals("Snake", snake.getName());
+    assertEquals(0, snake.getNumberOfLegs());
+  }
+
+  @Test
+  void testTransformAll() {
+    List<Animal> animals = Arrays.asList(
+        Animal_Builder.builder().name("Horse").maybe("yo").build(),
+        Animal_Builder.builder().name("Pig").numberOfLegs(2).build());
+    List<Animal> result = Animal_Builder.transformAll(animals, builder -> builder.numberOfLegs(4));
+    assertEquals(2, result.size());
+    assertEquals("Horse", result.get(0).getName());
+    assertEquals(Optional.of("yo"), result.get(0).maybe());
+    assertEquals("Pig", result.get(1).getName());
+    assertEquals(Optional.empty(), result.get(1).maybe());
+    assertEquals(4, result.get(1).getNumberOfLegs());
+    Animal[] array = Animal_Builder.transformAll(animals.toArray(new Animal[0]), builder -> builder.good(true));
+    assertTrue(array[0].isGood());
+    assertEquals(2, array[1].getNumberOfLegs());
+    List<Animal> fromSpliterator = Animal_Builder.transformAll(animals.spliterator(), builder -> builder.name("Cow"));
+    assertEquals("Cow", fromSpliterator.get(1).getName());
+    assertEquals(2, fromSpliterator.get(1).getNumberOfLegs());
+  }
+
+  @Test
+  void testParallelTransformAll() {
+    List<Animal> animals = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      animals.add(Animal_Builder.builder().name("Horse").numberOfLegs(i).build());
+    }
+    List<Animal> result = Animal_Builder.parallelTransformAll(animals,
+        builder -> builder.name("Cow"));
+    assertEquals(animals.size(), result.size());
+    for (int i = 0; i < result.size(); i++) {
+      assertEquals("Cow", result.get(i).getName());
+      assertEquals(i, result.get(i).getNumberOfLegs());
+    }
+  }
+}
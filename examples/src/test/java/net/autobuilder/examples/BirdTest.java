@@ -194,4 +194,31 @@ class BirdTest {
     assertEquals(1, best.feathers().size());
     assertEquals("best", best.addToSticks());
   }
-}
\ No newline at end of file
+
+  @Test
+  void testNestBuildAndReset() {
+    Bird_Nest_Builder builder = Bird_Nest_Builder.builder();
+    Bird.Nest nest = builder.sticks(ImmutableList.of("stick")).addToSticks("nest").buildAndReset();
+    Bird.Nest test = builder.addToSticks("test").buildAndReset();
+    Bird.Nest best = builder.reset(nest).addToSticks("best").buildAndReset();
+    assertEquals(ImmutableList.of("stick"), nest.sticks());
+    assertEquals("nest", nest.addToSticks());
+    assertEquals(ImmutableList.of(), test.sticks());
+    assertEquals("test", test.addToSticks());
+    assertEquals(ImmutableList.of("stick"), best.sticks());
+    assertEquals("best", best.addToSticks());
+  }
+
+  @Test
+  void testBuildAndResetAccumulators() {
+    Bird_Builder builder = Bird_Builder.builder();
+    Bird bird = builder.addToBeak(new Date()).putInEyes("", "").buildAndReset();
+    Bird bard = builder.addToFeet("").buildAndReset();
+    assertEquals(1, bird.beak().size());
+    assertEquals(1, bird.eyes().size());
+    assertEquals(0, bird.feet().size());
+    assertEquals(0, bard.beak().size());
+    assertEquals(0, bard.eyes().size());
+    assertEquals(1, bard.feet().size());
+  }
+}
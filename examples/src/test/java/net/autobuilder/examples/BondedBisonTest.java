@@ -0,0 +1,44 @@
+package net.autobuilder.examples;
+
+import com.google.common.collect.ImmutableBiMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BondedBisonTest {
+
+  @Test
+  void testPutIn() {
+    BondedBison bison = BondedBison_Builder.builder()
+        .putInTags("a", 1)
+        .putInTags(Collections.singletonMap("b", 2))
+        .build();
+    assertEquals(ImmutableBiMap.of("a", 1, "b", 2), bison.tags());
+    BondedBison next = bison.toBuilder().putInTags("c", 3).build();
+    assertEquals(ImmutableBiMap.of("a", 1, "b", 2, "c", 3), next.tags());
+    assertEquals("c", next.tags().inverse().get(3));
+  }
+
+  @Test
+  void testSetterCopies() {
+    Map<String, Integer> tags = new HashMap<>();
+    tags.put("a", 1);
+    BondedBison bison = BondedBison_Builder.builder().tags(tags).build();
+    tags.clear();
+    assertEquals(ImmutableBiMap.of("a", 1), bison.tags());
+    assertEquals(ImmutableBiMap.of(), BondedBison_Builder.builder().build().tags());
+  }
+
+  @Test
+  void testDuplicateValue() {
+    BondedBison_Builder builder = BondedBison_Builder.builder()
+        .putInTags("a", 1)
+        .putInTags("b", 1);
+    assertThrows(IllegalArgumentException.class, builder::build);
+  }
+}
@@ -0,0 +1,70 @@
+package net.autobuilder.examples;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static net.autobuilder.examples.CompactCrab.Claw.LEFT;
+import static net.autobuilder.examples.CompactCrab.Claw.RIGHT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CompactCrabTest {
+
+  @Test
+  void testBuildIsImmutable() {
+    CompactCrab_Builder builder = CompactCrab_Builder.builder()
+        .addToNames("Tom")
+        .addToShells(1)
+        .putInDepths("reef", 3)
+        .addToClaws(LEFT);
+    CompactCrab crab = builder.build();
+    builder.addToNames("Ann").addToClaws(RIGHT);
+    assertEquals(Collections.singletonList("Tom"), crab.names());
+    assertEquals(EnumSet.of(LEFT), crab.claws());
+    assertThrows(UnsupportedOperationException.class, () -> crab.names().add("Bob"));
+    assertThrows(UnsupportedOperationException.class, () -> crab.shells().add(2));
+    assertThrows(UnsupportedOperationException.class, () -> crab.depths().put("bay", 1));
+    assertThrows(UnsupportedOperationException.class, () -> crab.claws().add(RIGHT));
+  }
+
+  @Test
+  void testSetterCopies() {
+    List<String> names = new ArrayList<>(Arrays.asList("Tom", "Ann"));
+    CompactCrab crab = CompactCrab_Builder.builder().names(names).build();
+    names.clear();
+    assertEquals(Arrays.asList("Tom", "Ann"), crab.names());
+    // already immutable, so it isn't copied again
+    assertSame(crab.names(), crab.toBuilder().names(crab.names()).build().names());
+  }
+
+  @Test
+  void testEmpty() {
+    CompactCrab crab = CompactCrab_Builder.builder().build();
+    assertEquals(Collections.emptyList(), crab.names());
+    assertEquals(Collections.emptyMap(), crab.depths());
+    assertThrows(UnsupportedOperationException.class, () -> crab.names().add("Bob"));
+  }
+
+  @Test
+  void testEnumSetIsJdkCopy() {
+    CompactCrab crab = CompactCrab_Builder.builder().addToClaws(RIGHT).addToClaws(LEFT).build();
+    assertEquals(EnumSet.of(LEFT, RIGHT), crab.claws());
+    // Set.copyOf, not an EnumSet view
+    assertThrows(NullPointerException.class, () -> crab.claws().contains(null));
+    assertSame(crab.claws(), crab.toBuilder().claws(crab.claws()).build().claws());
+  }
+
+  @Test
+  void testNullElement() {
+    assertThrows(NullPointerException.class, () ->
+        CompactCrab_Builder.builder().names(Collections.singletonList(null)));
+    CompactCrab_Builder builder = CompactCrab_Builder.builder().addToNames((String) null);
+    assertThrows(NullPointerException.class, builder::build);
+  }
+}
@@ -7,6 +7,7 @@ import java.util.OptionalInt;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class GradleManTest {
@@ -37,4 +38,26 @@ class GradleManTest {
     assertEquals(OptionalInt.of(2), badman.legs());
     assertEquals("fake", badman.getSnake());
   }
-}
\ No newline at end of file
+
+  @Test
+  void unwrappedValueAndOptionalOverrideEachOther() {
+    Optional<String> name = Optional.of("Bat");
+    GradleMan_Builder builder = GradleMan_Builder.builder()
+        .snake("snake")
+        .legs(2)
+        .legs(OptionalInt.empty())
+        .name("Bad")
+        .name(name);
+    GradleMan first = builder.build();
+    assertSame(name, first.getName());
+    assertEquals(OptionalInt.empty(), first.legs());
+    GradleMan second = builder
+        .name(Optional.of("Bad"))
+        .name((String) null)
+        .legs(OptionalInt.of(3))
+        .legs(4)
+        .build();
+    assertEquals(Optional.empty(), second.getName());
+    assertEquals(OptionalInt.of(4), second.legs());
+  }
+}
@@ -0,0 +1,80 @@
+package net.autobuilder.examples;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class LazyLlamaTest {
+
+  private static LazyLlama larry() {
+    return LazyLlama_Builder.builder()
+        .name("Larry")
+        .numberOfLegs(4)
+        .nickname("L")
+        .toys(Arrays.asList("ball", "rope"))
+        .addToFriends("Lisa")
+        .putInMeals("breakfast", "grass")
+        .build();
+  }
+
+  @Test
+  void testUntouchedPropertiesAreReadFromSource() {
+    LazyLlama larry = larry();
+    LazyLlama lola = larry.toBuilder().name("Lola").build();
+    assertEquals("Lola", lola.name());
+    assertEquals(4, lola.numberOfLegs());
+    assertEquals(Optional.of("L"), lola.nickname());
+    assertSame(larry.toys(), lola.toys());
+    assertSame(larry.friends(), lola.friends());
+    assertSame(larry.meals(), lola.meals());
+  }
+
+  @Test
+  void testAccumulatorsStartFromSource() {
+    LazyLlama larry = larry();
+    LazyLlama lola = larry.toBuilder()
+        .addToToys("stick")
+        .addToFriends("Lena")
+        .putInMeals("dinner", "hay")
+        .build();
+    assertEquals(Arrays.asList("ball", "rope", "stick"), lola.toys());
+    assertEquals(ImmutableList.of("Lisa", "Lena"), lola.friends());
+    assertEquals(2, lola.meals().size());
+    assertEquals("grass", lola.meals().get("breakfast"));
+    assertEquals(Arrays.asList("ball", "rope"), larry.toys());
+  }
+
+  @Test
+  void testSourceIsNotRetained() {
+    LazyLlama larry = larry();
+    LazyLlama_Builder builder = larry.toBuilder().numberOfLegs(3);
+    LazyLlama lola = builder.build();
+    LazyLlama_Builder next = LazyLlama_Builder.builder();
+    assertSame(builder, next, "builders are not reused");
+    LazyLlama empty = next.name("").build();
+    assertEquals(3, lola.numberOfLegs());
+    assertEquals("Larry", lola.name());
+    assertEquals(0, empty.numberOfLegs());
+    assertEquals(Optional.empty(), empty.nickname());
+    assertEquals(Collections.emptyList(), empty.toys());
+    assertEquals(ImmutableList.of(), empty.friends());
+  }
+
+  @Test
+  void testResetWithInput() {
+    LazyLlama larry = larry();
+    LazyLlama_Builder builder = LazyLlama_Builder.builder();
+    LazyLlama lola = builder.reset(larry).nickname(Optional.empty()).buildAndReset();
+    LazyLlama lily = builder.name("Lily").buildAndReset();
+    assertEquals("Larry", lola.name());
+    assertEquals(Optional.empty(), lola.nickname());
+    assertEquals("Lily", lily.name());
+    assertEquals(0, lily.numberOfLegs());
+  }
+}
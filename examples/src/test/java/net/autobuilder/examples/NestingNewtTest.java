@@ -0,0 +1,131 @@
+package net.autobuilder.examples;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class NestingNewtTest {
+
+  private static NestingNewt nina() {
+    NestingNewt_Builder builder = NestingNewt_Builder.builder().name("Nina");
+    builder.pondBuilder().name("Pool").addToStones("a");
+    return builder.build();
+  }
+
+  @Test
+  void testChildBuilder() {
+    NestingNewt nina = nina();
+    assertEquals("Pool", nina.pond().name());
+    assertEquals(Collections.singletonList("a"), nina.pond().stones());
+  }
+
+  @Test
+  void testChildBuilderStartsWithCurrentValue() {
+    NestingNewt nina = nina();
+    NestingNewt_Builder builder = nina.toBuilder();
+    builder.pondBuilder().addToStones("b");
+    NestingNewt other = builder.build();
+    assertEquals(Arrays.asList("a", "b"), other.pond().stones());
+    assertEquals("Pool", other.pond().name());
+    assertEquals(Collections.singletonList("a"), nina.pond().stones());
+  }
+
+  @Test
+  void testSetterDiscardsChildBuilder() {
+    NestingNewt nina = nina();
+    NestingNewt_Builder builder = nina.toBuilder();
+    builder.pondBuilder().name("Lake");
+    NestingNewt.Pond pond = NestingNewt_Pond_Builder.builder()
+        .name("Sea")
+        .stones(Collections.emptyList())
+        .build();
+    assertSame(pond, builder.pond(pond).build().pond());
+  }
+
+  @Test
+  void testChildBuilderIsRecycled() {
+    NestingNewt_Eft_Builder first = NestingNewt_Eft_Builder.builder();
+    NestingNewt_Pond_Builder pondBuilder = first.pondBuilder().name("Pool").addToStones("a");
+    NestingNewt.Eft eft = first.build();
+    NestingNewt_Eft_Builder second = NestingNewt_Eft_Builder.builder();
+    assertSame(first, second);
+    assertSame(pondBuilder, second.pondBuilder());
+    second.pondBuilder().name("Lake");
+    NestingNewt.Eft other = second.build();
+    assertEquals(Collections.emptyList(), other.pond().stones());
+    assertEquals("Lake", other.pond().name());
+    assertEquals(Collections.singletonList("a"), eft.pond().stones());
+  }
+
+  @Test
+  void testLenses() {
+    NestingNewt nina = nina();
+    UnaryOperator<NestingNewt> renamePond = NestingNewt_Lenses.pond(NestingNewt_Pond_Lenses.setName("Lake"));
+    NestingNewt other = renamePond.apply(nina);
+    assertEquals("Lake", other.pond().name());
+    assertSame(nina.name(), other.name());
+    assertSame(nina.pond().stones(), other.pond().stones());
+    assertEquals("Lake", NestingNewt_Lenses.pond().andThen(NestingNewt_Pond_Lenses.name()).apply(other));
+    assertEquals("Pool", nina.pond().name());
+  }
+
+  @Test
+  void testLensesReturnSameIfEqual() {
+    NestingNewt nina = nina();
+    assertSame(nina, NestingNewt_Lenses.pond(NestingNewt_Pond_Lenses.setName(new String("Pool"))).apply(nina));
+    assertSame(nina, NestingNewt_Lenses.pond(UnaryOperator.identity()).apply(nina));
+    NestingNewt other = NestingNewt_Lenses.pond(NestingNewt_Pond_Lenses.stones(stones -> null)).apply(nina);
+    assertEquals(Collections.emptyList(), other.pond().stones());
+  }
+
+  @Test
+  void testScopedUpdate() {
+    NestingNewt.Eft eft = NestingNewt_Eft_Builder.create(builder ->
+        builder.pondBuilder().name("Pool").addToStones("a"));
+    NestingNewt.Eft other = NestingNewt_Eft_Builder.update(eft, builder -> {
+      NestingNewt.Eft inner = NestingNewt_Eft_Builder.update(eft, b -> b.pondBuilder().name("Lake"));
+      builder.pondBuilder().name(inner.pond().name()).addToStones("b");
+    });
+    assertEquals("Lake", other.pond().name());
+    assertEquals(Arrays.asList("a", "b"), other.pond().stones());
+    assertEquals("Pool", eft.pond().name());
+    assertEquals(Collections.singletonList("a"), eft.pond().stones());
+  }
+
+  @Test
+  void testChildScopedUpdate() {
+    NestingNewt.Eft eft = NestingNewt_Eft_Builder.create(builder ->
+        builder.updatePond(pond -> pond.name("Pool").addToStones("a")));
+    AtomicReference<NestingNewt_Pond_Builder> leased = new AtomicReference<>();
+    NestingNewt.Eft other = NestingNewt_Eft_Builder.update(eft, builder ->
+        builder.updatePond(pond -> leased.set(pond.name("Lake"))));
+    assertEquals("Lake", other.pond().name());
+    assertEquals(Collections.singletonList("a"), other.pond().stones());
+    assertEquals("Pool", eft.pond().name());
+    NestingNewt_Eft_Builder next = NestingNewt_Eft_Builder.builder();
+    assertSame(leased.get(), next.pondBuilder(), "child builder is not recycled");
+    next.pondBuilder().name("Sea");
+    next.build();
+  }
+
+  @Test
+  void testScopedUpdateGivesBackBuilderIfEditsThrow() {
+    AtomicReference<NestingNewt_Eft_Builder> leased = new AtomicReference<>();
+    assertThrows(IllegalStateException.class, () -> NestingNewt_Eft_Builder.create(builder -> {
+      leased.set(builder);
+      builder.pondBuilder().name("Pool").addToStones("a");
+      throw new IllegalStateException();
+    }));
+    NestingNewt_Eft_Builder next = NestingNewt_Eft_Builder.builder();
+    assertSame(leased.get(), next, "builder is not given back");
+    NestingNewt.Eft eft = next.pond(NestingNewt_Pond_Builder.create(b -> b.name("Lake"))).build();
+    assertEquals(Collections.emptyList(), eft.pond().stones());
+  }
+}
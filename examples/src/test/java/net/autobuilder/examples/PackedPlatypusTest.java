@@ -0,0 +1,97 @@
+package net.autobuilder.examples;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PackedPlatypusTest {
+
+  @Test
+  void testAppend() {
+    PackedPlatypus platypus = PackedPlatypus_Builder.builder()
+        .appendToEggs((byte) 1)
+        .appendAllToEggs(new byte[]{2, 3})
+        .appendToDives(10L)
+        .appendAllToDives(new long[]{11L, 12L, 13L, 14L}, 1, 2)
+        .spurs(new int[]{7})
+        .appendToSpurs(8)
+        .build();
+    assertArrayEquals(new byte[]{1, 2, 3}, platypus.eggs());
+    assertArrayEquals(new long[]{10L, 12L, 13L}, platypus.dives());
+    assertArrayEquals(new int[]{7, 8}, platypus.spurs());
+  }
+
+  @Test
+  void testAppendNullIsIgnored() {
+    PackedPlatypus platypus = PackedPlatypus_Builder.builder()
+        .appendToDives(10L)
+        .appendAllToDives(null)
+        .appendAllToDives(null, 0, 2)
+        .eggs(new byte[0])
+        .spurs(new int[0])
+        .build();
+    assertArrayEquals(new long[]{10L}, platypus.dives());
+  }
+
+  @Test
+  void testFullBufferIsHandedOff() {
+    PackedPlatypus_Builder builder = PackedPlatypus_Builder.builder()
+        .appendAllToEggs(new byte[]{1, 2, 3, 4})
+        .dives(new long[0])
+        .spurs(new int[0]);
+    PackedPlatypus first = builder.build();
+    PackedPlatypus second = builder.build();
+    assertSame(first.eggs(), second.eggs());
+    builder.appendToEggs((byte) 5);
+    assertArrayEquals(new byte[]{1, 2, 3, 4}, first.eggs());
+    assertArrayEquals(new byte[]{1, 2, 3, 4, 5}, builder.build().eggs());
+  }
+
+  @Test
+  void testPartialBufferIsTrimmed() {
+    PackedPlatypus_Builder builder = PackedPlatypus_Builder.builder()
+        .appendAllToEggs(new byte[]{1, 2})
+        .dives(new long[0])
+        .spurs(new int[0]);
+    PackedPlatypus first = builder.build();
+    PackedPlatypus second = builder.build();
+    assertNotSame(first.eggs(), second.eggs());
+    assertArrayEquals(new byte[]{1, 2}, first.eggs());
+  }
+
+  @Test
+  void testDefensiveCopy() {
+    int[] spurs = {1, 2};
+    PackedPlatypus_Builder builder = PackedPlatypus_Builder.builder()
+        .eggs(new byte[0])
+        .dives(new long[0])
+        .spurs(spurs);
+    PackedPlatypus platypus = builder.build();
+    spurs[0] = 9;
+    assertArrayEquals(new int[]{1, 2}, platypus.spurs());
+    builder.appendToSpurs(3);
+    assertNotSame(builder.build().spurs(), builder.build().spurs());
+    assertArrayEquals(new int[]{1, 2}, platypus.spurs());
+  }
+
+  @Test
+  void testToBuilderDoesNotTouchSource() {
+    long[] dives = {1L, 2L};
+    PackedPlatypus platypus = PackedPlatypus_Builder.builder()
+        .eggs(new byte[]{1})
+        .dives(dives)
+        .spurs(new int[0])
+        .build();
+    PackedPlatypus other = platypus.toBuilder()
+        .appendToDives(3L)
+        .appendToEggs((byte) 2)
+        .build();
+    assertSame(dives, platypus.dives());
+    assertArrayEquals(new long[]{1L, 2L}, platypus.dives());
+    assertArrayEquals(new byte[]{1}, platypus.eggs());
+    assertArrayEquals(new long[]{1L, 2L, 3L}, other.dives());
+    assertArrayEquals(new byte[]{1, 2}, other.eggs());
+  }
+}
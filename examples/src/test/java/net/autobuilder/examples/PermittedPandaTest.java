@@ -0,0 +1,100 @@
+package net.autobuilder.examples;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+
+import static net.autobuilder.examples.PermittedPanda.Permission.EXECUTE;
+import static net.autobuilder.examples.PermittedPanda.Permission.READ;
+import static net.autobuilder.examples.PermittedPanda.Permission.WRITE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PermittedPandaTest {
+
+  @Test
+  void testAddTo() {
+    PermittedPanda panda = PermittedPanda_Builder.builder()
+        .addToPermissions(EXECUTE)
+        .addToPermissions(Arrays.asList(READ, EXECUTE))
+        .putInReasons(WRITE, "owner")
+        .addToFlags(WRITE)
+        .addToFlags(Arrays.asList(EXECUTE, READ))
+        .putInLimits(READ, 1)
+        .putInLimits(ImmutableMap.of(WRITE, 2).entrySet())
+        .build();
+    assertEquals(EnumSet.of(READ, EXECUTE), panda.permissions());
+    // iteration order is the declaration order of the constants
+    assertEquals(Arrays.asList(READ, EXECUTE), Arrays.asList(panda.permissions().toArray()));
+    assertEquals(Collections.singletonMap(WRITE, "owner"), panda.reasons());
+    assertEquals(ImmutableSet.of(READ, WRITE, EXECUTE), panda.flags());
+    assertEquals(Arrays.asList(READ, WRITE, EXECUTE), panda.flags().asList());
+    assertEquals(ImmutableMap.of(READ, 1, WRITE, 2), panda.limits());
+    assertThrows(UnsupportedOperationException.class, () -> panda.permissions().add(WRITE));
+  }
+
+  @Test
+  void testEmpty() {
+    PermittedPanda panda = PermittedPanda_Builder.builder().build();
+    assertEquals(Collections.emptySet(), panda.permissions());
+    assertEquals(Collections.emptyMap(), panda.reasons());
+    assertEquals(ImmutableSet.of(), panda.flags());
+    assertEquals(ImmutableMap.of(), panda.limits());
+  }
+
+  @Test
+  void testAddToAfterToBuilder() {
+    PermittedPanda panda = PermittedPanda_Builder.builder()
+        .permissions(Collections.singleton(WRITE))
+        .flags(ImmutableSet.of(EXECUTE))
+        .limits(ImmutableMap.of(EXECUTE, 3))
+        .build();
+    PermittedPanda next = panda.toBuilder()
+        .addToPermissions(READ)
+        .addToFlags(READ)
+        .putInLimits(READ, 1)
+        .build();
+    assertEquals(EnumSet.of(READ, WRITE), next.permissions());
+    assertEquals(ImmutableSet.of(READ, EXECUTE), next.flags());
+    assertEquals(ImmutableMap.of(READ, 1, EXECUTE, 3), next.limits());
+    assertEquals(Collections.singleton(WRITE), panda.permissions());
+  }
+
+  @Test
+  void testRecycledBuilderDoesNotLeak() {
+    PermittedPanda first = PermittedPanda_Builder.builder()
+        .addToPermissions(READ)
+        .addToFlags(READ)
+        .build();
+    PermittedPanda second = PermittedPanda_Builder.builder()
+        .addToPermissions(WRITE)
+        .addToFlags(WRITE)
+        .build();
+    assertEquals(Collections.singleton(READ), first.permissions());
+    assertEquals(ImmutableSet.of(READ), first.flags());
+    assertEquals(Collections.singleton(WRITE), second.permissions());
+    assertEquals(ImmutableSet.of(WRITE), second.flags());
+  }
+
+  @Test
+  void testCubKeepsDuplicateKeyCheck() {
+    PermittedPanda_Cub_Builder builder = PermittedPanda_Cub_Builder.builder()
+        .putInLimits(READ, 1)
+        .putInLimits(READ, 2);
+    assertThrows(IllegalArgumentException.class, builder::build);
+  }
+
+  @Test
+  void testCubAcceptsNull() {
+    PermittedPanda.Cub cub = PermittedPanda_Cub_Builder.builder()
+        .addToPermissions((PermittedPanda.Permission) null)
+        .addToPermissions(READ)
+        .build();
+    assertEquals(new HashSet<>(Arrays.asList(null, READ)), cub.permissions());
+  }
+}
@@ -0,0 +1,81 @@
+package net.autobuilder.examples;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PersistentPuffinTest {
+
+  @Test
+  void testAppendAfterToBuilder() {
+    PersistentPuffin puffin = PersistentPuffin_Builder.builder().name("Pip").build();
+    List<String> expected = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      puffin = puffin.toBuilder().addToFish("fish" + i).build();
+      expected.add("fish" + i);
+    }
+    assertEquals(expected, puffin.fish());
+    assertEquals(Collections.emptyList(), puffin.dives());
+    assertEquals(ImmutableList.of(), puffin.eggs());
+  }
+
+  @Test
+  void testBranches() {
+    PersistentPuffin parent = PersistentPuffin_Builder.builder().name("Pip")
+        .addToFish("cod")
+        .build();
+    PersistentPuffin left = parent.toBuilder().addToFish("herring").build();
+    PersistentPuffin right = parent.toBuilder().addToFish("sprat").build();
+    PersistentPuffin leftLeft = left.toBuilder().addToFish(Arrays.asList("eel", "eel")).build();
+    assertEquals(Collections.singletonList("cod"), parent.fish());
+    assertEquals(Arrays.asList("cod", "herring"), left.fish());
+    assertEquals(Arrays.asList("cod", "sprat"), right.fish());
+    assertEquals(Arrays.asList("cod", "herring", "eel", "eel"), leftLeft.fish());
+    assertThrows(IndexOutOfBoundsException.class, () -> parent.fish().get(1));
+  }
+
+  @Test
+  void testAppendToRegularList() {
+    PersistentPuffin puffin = PersistentPuffin_Builder.builder().name("Pip")
+        .fish(Arrays.asList("cod", "sprat"))
+        .dives(Collections.singletonList(1))
+        .build();
+    PersistentPuffin next = puffin.toBuilder()
+        .addToFish("eel")
+        .addToDives(Arrays.asList(2, 3))
+        .addToEggs("egg")
+        .build();
+    assertEquals(Arrays.asList("cod", "sprat", "eel"), next.fish());
+    assertEquals(Arrays.asList(1, 2, 3), next.dives());
+    assertEquals(ImmutableList.of("egg"), next.eggs());
+    assertEquals(Arrays.asList("cod", "sprat"), puffin.fish());
+  }
+
+  @Test
+  void testSetterReplacesAppended() {
+    PersistentPuffin puffin = PersistentPuffin_Builder.builder().name("Pip")
+        .addToFish("cod")
+        .fish(Collections.singletonList("eel"))
+        .ensureCapacityForDives(16)
+        .build();
+    assertEquals(Collections.singletonList("eel"), puffin.fish());
+    assertEquals(Collections.emptyList(), puffin.dives());
+  }
+
+  @Test
+  void testUnmodifiable() {
+    PersistentPuffin puffin = PersistentPuffin_Builder.builder().name("Pip")
+        .addToFish("cod")
+        .build();
+    assertThrows(UnsupportedOperationException.class, () -> puffin.fish().add("eel"));
+    assertThrows(UnsupportedOperationException.class, () -> puffin.fish().set(0, "eel"));
+    assertEquals(Collections.singletonList("cod").hashCode(), puffin.fish().hashCode());
+  }
+}
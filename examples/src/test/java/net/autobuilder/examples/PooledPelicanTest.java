@@ -0,0 +1,137 @@
+package net.autobuilder.examples;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PooledPelicanTest {
+
+  @Test
+  void testStackedBuildersAreReused() {
+    PooledPelican pete = PooledPelican_Builder.builder().name("Pete").addToFish("cod").build();
+    PooledPelican_Builder outer_1 = pete.toBuilder();
+    PooledPelican_Builder inner_1 = pete.toBuilder();
+    assertNotSame(outer_1, inner_1);
+    PooledPelican paul = outer_1.name(inner_1.name("Paul").build().name()).build();
+    PooledPelican_Builder outer_2 = pete.toBuilder();
+    PooledPelican_Builder inner_2 = pete.toBuilder();
+    PooledPelican mary = outer_2.name(inner_2.name("Mary").addToFish("eel").build().name()).build();
+    assertSame(inner_1, outer_2, "builders are not reused");
+    assertSame(outer_1, inner_2, "builders are not reused");
+    assertEquals("Paul", paul.name());
+    assertEquals("Mary", mary.name());
+    assertEquals(ImmutableList.of("cod"), mary.fish());
+  }
+
+  @Test
+  void testBuildTwiceDoesNotPoolBuilderTwice() {
+    PooledPelican_Builder builder = PooledPelican_Builder.builder();
+    PooledPelican pete = builder.name("Pete").build();
+    PooledPelican paul = builder.name("Paul").fish(ImmutableList.of("cod")).build();
+    PooledPelican_Builder first = PooledPelican_Builder.builder();
+    PooledPelican_Builder second = PooledPelican_Builder.builder();
+    assertNotSame(first, second, "builder is leased twice");
+    assertEquals("Pete", pete.name());
+    assertEquals(ImmutableList.of("cod"), paul.fish());
+    first.name("").build();
+    second.name("").build();
+  }
+
+  @Test
+  void testScopedUpdateGivesBackBuilderIfBuildFails() {
+    AtomicReference<PooledPelican_Builder> leased = new AtomicReference<>();
+    // name is missing
+    assertThrows(NullPointerException.class, () ->
+        PooledPelican_Builder.create(builder -> leased.set(builder.addToFish("cod"))));
+    PooledPelican_Builder next = PooledPelican_Builder.builder();
+    assertSame(leased.get(), next, "builder is not given back");
+    assertEquals(ImmutableList.of(), next.name("Pete").build().fish());
+  }
+
+  @Test
+  void testScopedUpdateDoesNotGiveBackBuilderTwice() {
+    assertThrows(IllegalStateException.class, () ->
+        PooledPelican_Builder.create(builder -> builder.name("Pete").build()));
+    assertThrows(RuntimeException.class, () ->
+        PooledPelican_Builder.create(builder -> {
+          builder.name("Paul").build();
+          throw new RuntimeException();
+        }));
+    PooledPelican_Builder first = PooledPelican_Builder.builder();
+    PooledPelican_Builder second = PooledPelican_Builder.builder();
+    PooledPelican_Builder third = PooledPelican_Builder.builder();
+    assertNotSame(first, second, "builder is leased twice");
+    assertNotSame(first, third, "builder is leased twice");
+    assertNotSame(second, third, "builder is leased twice");
+    first.name("").build();
+    second.name("").build();
+    third.name("").build();
+  }
+
+  @Test
+  void testNestedScopesGiveBackBothBuilders() {
+    AtomicReference<PooledPelican_Chick_Builder> leasedChick = new AtomicReference<>();
+    AtomicReference<PooledPelican_Builder> leasedMother = new AtomicReference<>();
+    PooledPelican pete = PooledPelican_Builder.create(builder -> builder.name("Pete"));
+    PooledPelican.Chick chick = PooledPelican_Chick_Builder.create(builder -> builder.name("Chuck").mother(pete));
+    PooledPelican.Chick other = PooledPelican_Chick_Builder.update(chick, builder -> {
+      leasedChick.set(builder);
+      builder.mother(PooledPelican_Builder.update(chick.mother(), mother -> {
+        leasedMother.set(mother);
+        mother.name("Mary");
+      }));
+    });
+    assertEquals("Mary", other.mother().name());
+    assertEquals("Chuck", other.name());
+    PooledPelican_Chick_Builder nextChick = PooledPelican_Chick_Builder.builder();
+    PooledPelican_Builder nextMother = PooledPelican_Builder.builder();
+    assertSame(leasedChick.get(), nextChick, "builder is not given back");
+    assertSame(leasedMother.get(), nextMother, "builder is not given back");
+    nextChick.name("").mother(pete).build();
+    nextMother.name("").build();
+  }
+
+  @Test
+  void testManyThreads() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(16);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < 64; i++) {
+        String name = "pelican " + i;
+        results.add(executor.submit(() -> {
+          for (int j = 0; j < 1000; j++) {
+            PooledPelican outer = PooledPelican_Builder.builder()
+                .name(name)
+                .addToFish(name)
+                .build();
+            PooledPelican pelican = outer.toBuilder()
+                .addToFish(PooledPelican_Builder.toBuilder(outer).build().name())
+                .build();
+            if (!pelican.name().equals(name) ||
+                !pelican.fish().equals(ImmutableList.of(name, name))) {
+              return false;
+            }
+          }
+          return true;
+        }));
+      }
+      for (Future<Boolean> result : results) {
+        assertTrue(result.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package net.autobuilder.examples;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RecycledRavenTest {
+
+  @Test
+  void testAccumulatorsAreRecycled() throws Exception {
+    RecycledRaven_Builder builder = RecycledRaven_Builder.builder();
+    RecycledRaven rick = builder.name("Rick")
+        .addToFeathers("black")
+        .addToClaws("left")
+        .putInNests("oak", 1)
+        .addToEggs("egg")
+        .build();
+    Object feathers = accumulator(builder, "feathersBuilder");
+    RecycledRaven_Builder next = RecycledRaven_Builder.builder();
+    assertSame(builder, next, "builders are not reused");
+    RecycledRaven rita = next.name("Rita").addToFeathers("grey").build();
+    assertSame(feathers, accumulator(builder, "feathersBuilder"), "accumulator is not reused");
+    assertEquals(Collections.singletonList("black"), rick.feathers());
+    assertEquals(Collections.singleton("left"), rick.claws());
+    assertEquals(Collections.singletonMap("oak", 1), rick.nests());
+    assertEquals(ImmutableList.of("egg"), rick.eggs());
+    assertEquals(Collections.singletonList("grey"), rita.feathers());
+    assertEquals(Collections.emptySet(), rita.claws());
+    assertEquals(Collections.emptyMap(), rita.nests());
+    assertEquals(ImmutableList.of(), rita.eggs());
+  }
+
+  @Test
+  void testBuiltCollectionsAreUnmodifiable() {
+    RecycledRaven raven = RecycledRaven_Builder.builder().name("")
+        .addToFeathers("black")
+        .addToClaws("left")
+        .putInNests("oak", 1)
+        .build();
+    assertThrows(UnsupportedOperationException.class, () -> raven.feathers().add("white"));
+    assertThrows(UnsupportedOperationException.class, () -> raven.claws().add("right"));
+    assertThrows(UnsupportedOperationException.class, () -> raven.nests().put("elm", 2));
+  }
+
+  @Test
+  void testLargeAccumulatorIsDiscarded() throws Exception {
+    RecycledRaven_Builder builder = RecycledRaven_Builder.builder();
+    RecycledRaven raven = builder.name("")
+        .addToFeathers(Arrays.asList("a", "b", "c", "d", "e"))
+        .build();
+    assertEquals(5, raven.feathers().size());
+    assertNull(accumulator(builder, "feathersBuilder"));
+  }
+
+  @Test
+  void testLargeAccumulatorIsDiscardedBySetter() throws Exception {
+    RecycledRaven_Builder builder = RecycledRaven_Builder.builder();
+    builder.name("").addToFeathers(Arrays.asList("a", "b", "c", "d", "e"));
+    RecycledRaven raven = builder.feathers(Collections.singletonList("white")).build();
+    assertEquals(Collections.singletonList("white"), raven.feathers());
+    assertNull(accumulator(builder, "feathersBuilder"));
+  }
+
+  @Test
+  void testAccumulatorWithLargeCapacityIsDiscarded() throws Exception {
+    RecycledRaven_Builder builder = RecycledRaven_Builder.builder();
+    RecycledRaven raven = builder.name("")
+        .ensureCapacityForFeathers(100)
+        .addToFeathers("black")
+        .build();
+    assertEquals(Collections.singletonList("black"), raven.feathers());
+    assertNull(accumulator(builder, "feathersBuilder"));
+  }
+
+  @Test
+  void testSetterAfterAccumulator() throws Exception {
+    List<String> feathers = Arrays.asList("white", "grey");
+    RecycledRaven_Builder builder = RecycledRaven_Builder.builder();
+    RecycledRaven raven = builder.name("")
+        .addToFeathers("black")
+        .feathers(feathers)
+        .claws(ImmutableSet.of("left"))
+        .build();
+    assertEquals(feathers, raven.feathers());
+    assertEquals(Collections.singleton("left"), raven.claws());
+    assertNotNull(accumulator(builder, "feathersBuilder"));
+  }
+
+  private static Object accumulator(RecycledRaven_Builder builder, String name) throws Exception {
+    Field field = RecycledRaven_Builder.class.getDeclaredField(name);
+    field.setAccessible(true);
+    return field.get(builder);
+  }
+}
@@ -0,0 +1,63 @@
+package net.autobuilder.examples;
+
+import com.google.common.primitives.ImmutableDoubleArray;
+import com.google.common.primitives.ImmutableIntArray;
+import com.google.common.primitives.ImmutableLongArray;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SampledSealTest {
+
+  @Test
+  void testEmpty() {
+    SampledSeal seal = SampledSeal_Builder.builder().build();
+    assertEquals(ImmutableIntArray.of(), seal.dives());
+    assertEquals(ImmutableLongArray.of(), seal.timestamps());
+    assertEquals(ImmutableDoubleArray.of(), seal.depths());
+  }
+
+  @Test
+  void testAddTo() {
+    SampledSeal seal = SampledSeal_Builder.builder()
+        .addToDives(1)
+        .addToDives(new int[]{2, 3})
+        .addToDives(ImmutableIntArray.of(4))
+        .addToTimestamps(10L)
+        .addToTimestamps(new long[]{20L})
+        .addToDepths(1.5)
+        .addToDepths(ImmutableDoubleArray.of(2.5, 3.5))
+        .build();
+    assertEquals(ImmutableIntArray.of(1, 2, 3, 4), seal.dives());
+    assertEquals(ImmutableLongArray.of(10L, 20L), seal.timestamps());
+    assertEquals(ImmutableDoubleArray.of(1.5, 2.5, 3.5), seal.depths());
+  }
+
+  @Test
+  void testAddToAfterToBuilder() {
+    SampledSeal seal = SampledSeal_Builder.builder()
+        .dives(ImmutableIntArray.of(1, 2))
+        .timestamps(ImmutableLongArray.of(10L))
+        .depths(ImmutableDoubleArray.of(1.5))
+        .build();
+    SampledSeal next = seal.toBuilder()
+        .addToDives(3)
+        .addToTimestamps(new long[]{20L, 30L})
+        .ensureCapacityForDepths(16)
+        .addToDepths(2.5)
+        .build();
+    assertEquals(ImmutableIntArray.of(1, 2, 3), next.dives());
+    assertEquals(ImmutableLongArray.of(10L, 20L, 30L), next.timestamps());
+    assertEquals(ImmutableDoubleArray.of(1.5, 2.5), next.depths());
+    assertEquals(ImmutableIntArray.of(1, 2), seal.dives());
+  }
+
+  @Test
+  void testSetterAfterAddTo() {
+    SampledSeal seal = SampledSeal_Builder.builder()
+        .addToDives(1)
+        .dives(ImmutableIntArray.of(7))
+        .build();
+    assertEquals(ImmutableIntArray.of(7), seal.dives());
+  }
+}
@@ -0,0 +1,82 @@
+package net.autobuilder.examples;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SizedSalmonTest {
+
+  @Test
+  void testAccumulateAfterToBuilder() {
+    SizedSalmon sam = SizedSalmon_Builder.builder()
+        .scales(Arrays.asList("a", "b"))
+        .rivers(Collections.singleton("Rhine"))
+        .spawns(Collections.singletonMap("2019", 3))
+        .eggs(ImmutableList.of("egg"))
+        .build();
+    SizedSalmon sue = sam.toBuilder()
+        .addToScales("c")
+        .addToRivers(Arrays.asList("Elbe", "Oder"))
+        .putInSpawns("2020", 4)
+        .addToEggs("egg")
+        .build();
+    assertEquals(Arrays.asList("a", "b", "c"), sue.scales());
+    assertEquals(ImmutableSet.of("Rhine", "Elbe", "Oder"), sue.rivers());
+    assertEquals(ImmutableMap.of("2019", 3, "2020", 4), sue.spawns());
+    assertEquals(ImmutableList.of("egg", "egg"), sue.eggs());
+    assertEquals(Arrays.asList("a", "b"), sam.scales());
+  }
+
+  @Test
+  void testEnsureCapacity() {
+    SizedSalmon_Builder builder = SizedSalmon_Builder.builder()
+        .scales(Collections.singletonList("a"))
+        .ensureCapacityForScales(100)
+        .ensureCapacityForRivers(100)
+        .ensureCapacityForSpawns(100)
+        .ensureCapacityForEggs(100);
+    for (int i = 0; i < 100; i++) {
+      builder.addToScales("s" + i)
+          .addToRivers("r" + i)
+          .putInSpawns("y" + i, i)
+          .addToEggs("e" + i);
+    }
+    SizedSalmon salmon = builder.ensureCapacityForScales(200).build();
+    assertEquals(101, salmon.scales().size());
+    assertEquals("a", salmon.scales().get(0));
+    assertEquals(100, salmon.rivers().size());
+    assertEquals(100, salmon.spawns().size());
+    assertEquals(100, salmon.eggs().size());
+  }
+
+  @Test
+  void testEnsureCapacityKeepsValue() {
+    SizedSalmon salmon = SizedSalmon_Builder.builder()
+        .scales(Collections.singletonList("a"))
+        .rivers(Collections.singleton("Rhine"))
+        .spawns(Collections.singletonMap("2019", 3))
+        .eggs(ImmutableList.of("egg"))
+        .ensureCapacityForScales(0)
+        .ensureCapacityForRivers(0)
+        .ensureCapacityForSpawns(0)
+        .ensureCapacityForEggs(0)
+        .build();
+    assertEquals(Collections.singletonList("a"), salmon.scales());
+    assertEquals(Collections.singleton("Rhine"), salmon.rivers());
+    assertEquals(Collections.singletonMap("2019", 3), salmon.spawns());
+    assertEquals(ImmutableList.of("egg"), salmon.eggs());
+  }
+
+  @Test
+  void testNegativeCapacity() {
+    assertThrows(IllegalArgumentException.class,
+        () -> SizedSalmon_Builder.builder().ensureCapacityForScales(-1));
+  }
+}
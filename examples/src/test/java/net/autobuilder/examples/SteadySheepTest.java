@@ -0,0 +1,108 @@
+package net.autobuilder.examples;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SteadySheepTest {
+
+  private static SteadySheep shaun() {
+    return SteadySheep_Builder.builder()
+        .name("Shaun")
+        .weight(0.0)
+        .nickname("S")
+        .age(3)
+        .wool(Arrays.asList("white", "fluffy"))
+        .addToFriends("Timmy")
+        .build();
+  }
+
+  @Test
+  void testUnchangedReturnsSource() {
+    SteadySheep shaun = shaun();
+    assertSame(shaun, shaun.toBuilder().build());
+    assertSame(shaun, shaun.toBuilder().name(shaun.name()).wool(shaun.wool()).build());
+  }
+
+  @Test
+  void testChangedReturnsNewInstance() {
+    SteadySheep shaun = shaun();
+    SteadySheep copy = shaun.toBuilder().name(new String("Shaun")).build();
+    assertNotSame(shaun, copy);
+    assertEquals(shaun, copy);
+    assertNotSame(shaun, shaun.toBuilder().weight(-0.0).build());
+    assertNotSame(shaun, shaun.toBuilder().addToFriends("Timmy").build());
+    assertNotSame(shaun, shaun.toBuilder().addToWool(Collections.emptyList()).build());
+  }
+
+  @Test
+  void testUnwrappedOptionalIsCompared() {
+    SteadySheep shaun = shaun();
+    assertSame(shaun, shaun.toBuilder().nickname(shaun.nickname().get()).age(3).build());
+    assertSame(shaun, shaun.toBuilder().nickname(shaun.nickname()).age(shaun.age()).build());
+    assertNotSame(shaun, shaun.toBuilder().nickname(new String("S")).build());
+    assertNotSame(shaun, shaun.toBuilder().nickname((String) null).build());
+    assertNotSame(shaun, shaun.toBuilder().age(4).build());
+    assertNotSame(shaun, shaun.toBuilder().age(OptionalInt.empty()).build());
+  }
+
+  @Test
+  void testBuilderWithoutSource() {
+    SteadySheep shaun = shaun();
+    SteadySheep_Builder builder = SteadySheep_Builder.builder();
+    SteadySheep first = builder.reset(shaun).buildAndReset();
+    SteadySheep second = builder.name("Shaun").weight(0.0).nickname("S").age(3)
+        .wool(shaun.wool()).friends(shaun.friends()).buildAndReset();
+    assertSame(shaun, first);
+    assertNotSame(shaun, second);
+    assertEquals(shaun, second);
+  }
+
+  @Test
+  void testCompareWithEquals() {
+    SteadySheep.Lamb timmy = SteadySheep_Lamb_Builder.builder()
+        .name("Timmy")
+        .addToWool("white")
+        .build();
+    assertSame(timmy, timmy.toBuilder().build());
+    assertSame(timmy, timmy.toBuilder().name(new String("Timmy")).build());
+    assertSame(timmy, timmy.toBuilder().wool(Collections.singletonList("white")).build());
+    assertNotSame(timmy, timmy.toBuilder().name("Tommy").build());
+    assertNotSame(timmy, timmy.toBuilder().addToWool("grey").build());
+    SteadySheep.Lamb empty = SteadySheep_Lamb_Builder.builder().name("").build();
+    assertEquals(Collections.emptyList(), empty.wool());
+  }
+
+  @Test
+  void testWithers() {
+    SteadySheep shaun = shaun();
+    SteadySheep heavy = SteadySheep_Builder.withWeight(shaun, 2.5);
+    assertEquals(2.5, heavy.weight());
+    assertEquals("Shaun", heavy.name());
+    assertSame(shaun.wool(), heavy.wool());
+    assertSame(shaun.friends(), heavy.friends());
+    assertEquals(shaun.toBuilder().weight(2.5).build(), heavy);
+    assertEquals(Optional.empty(), SteadySheep_Builder.withNickname(shaun, null).nickname());
+    assertEquals(Collections.emptyList(), SteadySheep_Builder.withWool(shaun, null).wool());
+    assertEquals(ImmutableSet.of("Lamb"),
+        SteadySheep_Builder.withFriends(shaun, ImmutableSet.of("Lamb")).friends());
+  }
+
+  @Test
+  void testWitherReturnsSourceIfSame() {
+    SteadySheep shaun = shaun();
+    assertSame(shaun, SteadySheep_Builder.withName(shaun, shaun.name()));
+    assertSame(shaun, SteadySheep_Builder.withWeight(shaun, 0.0));
+    assertSame(shaun, SteadySheep_Builder.withWool(shaun, shaun.wool()));
+    // 0.0 and -0.0 are different
+    assertNotSame(shaun, SteadySheep_Builder.withWeight(shaun, -0.0));
+  }
+}
@@ -0,0 +1,103 @@
+package net.autobuilder.examples;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.ImmutableTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class TaggedTapirTest {
+
+  @Test
+  void testAccumulate() {
+    TaggedTapir tapir = TaggedTapir_Builder.builder()
+        .putInSightings("zoo", 1)
+        .putInSightings("zoo", 1)
+        .putInSightings(ImmutableListMultimap.of("park", 2).entries())
+        .putInTags("color", "brown")
+        .putInTags("color", "brown")
+        .addToVisits("zoo")
+        .addToVisits(Arrays.asList("zoo", "park"))
+        .addToNames("Tom")
+        .addToNames(Arrays.asList("Ann", "Bob"))
+        .putInHeights("b", 2)
+        .putInHeights("a", 1)
+        .putInGrid("x", 1, 0.5)
+        .putInGrid(ImmutableTable.of("y", 2, 1.5))
+        .build();
+    assertEquals(ImmutableListMultimap.of("zoo", 1, "zoo", 1, "park", 2), tapir.sightings());
+    assertEquals(ImmutableSetMultimap.of("color", "brown"), tapir.tags());
+    assertEquals(2, tapir.visits().count("zoo"));
+    assertEquals(Arrays.asList("Ann", "Bob", "Tom"), tapir.names().asList());
+    assertEquals(Arrays.asList("a", "b"), tapir.heights().keySet().asList());
+    assertEquals(2, tapir.grid().size());
+    assertEquals(1.5, tapir.grid().get("y", 2));
+  }
+
+  @Test
+  void testEmpty() {
+    TaggedTapir tapir = TaggedTapir_Builder.builder().build();
+    assertEquals(ImmutableListMultimap.of(), tapir.sightings());
+    assertEquals(ImmutableMultiset.of(), tapir.visits());
+    assertEquals(ImmutableSortedSet.of(), tapir.names());
+    assertEquals(ImmutableTable.of(), tapir.grid());
+  }
+
+  @Test
+  void testToBuilderKeepsComparator() {
+    Comparator<String> reverse = Comparator.reverseOrder();
+    TaggedTapir tapir = new AutoValue_TaggedTapir(ImmutableListMultimap.of(), ImmutableSetMultimap.of(),
+        ImmutableMultiset.of(), ImmutableSortedSet.orderedBy(reverse).add("Ann").build(),
+        ImmutableSortedMap.<String, Integer>orderedBy(reverse).put("a", 1).build(), ImmutableTable.of());
+    TaggedTapir next = tapir.toBuilder()
+        .addToNames("Bob")
+        .putInHeights("b", 2)
+        .putInGrid("x", 1, 0.5)
+        .build();
+    assertEquals(Arrays.asList("Bob", "Ann"), next.names().asList());
+    assertEquals(Arrays.asList("b", "a"), next.heights().keySet().asList());
+    assertEquals(Collections.singletonList("Ann"), tapir.names().asList());
+  }
+
+  @Test
+  void testSortedArgument() {
+    TreeSet<String> reversed = new TreeSet<>(Comparator.reverseOrder());
+    reversed.addAll(Arrays.asList("a", "b"));
+    TreeMap<String, Integer> reversedMap = new TreeMap<>(Comparator.reverseOrder());
+    reversedMap.put("a", 1);
+    reversedMap.put("b", 2);
+    TaggedTapir tapir = TaggedTapir_Builder.builder()
+        .names(reversed)
+        .heights(reversedMap)
+        .build();
+    // the setter sorts in natural order, regardless of the comparator of the argument
+    assertEquals(Arrays.asList("a", "b"), tapir.names().asList());
+    assertEquals(Arrays.asList("a", "b"), tapir.heights().keySet().asList());
+    ImmutableSortedSet<String> names = tapir.names();
+    assertSame(names, TaggedTapir_Builder.builder().names(names).build().names());
+    ImmutableSortedSet<String> reversedNames = ImmutableSortedSet.copyOfSorted(reversed);
+    assertEquals(Arrays.asList("a", "b"),
+        TaggedTapir_Builder.builder().names(reversedNames).build().names().asList());
+  }
+
+  @Test
+  void testUnsortedArgument() {
+    TaggedTapir tapir = TaggedTapir_Builder.builder()
+        .names(Arrays.asList("b", "a"))
+        .heights(Collections.singletonMap("a", 1))
+        .build();
+    assertEquals(Arrays.asList("a", "b"), tapir.names().asList());
+    assertEquals(ImmutableSortedMap.of("a", 1), tapir.heights());
+  }
+}
@@ -0,0 +1,85 @@
+package net.autobuilder.examples;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TallyTurtleTest {
+
+  @Test
+  void testPrimitiveAddTo() {
+    TallyTurtle turtle = TallyTurtle_Builder.builder()
+        .addToIds(1L)
+        .addToIds(Long.valueOf(2L))
+        .addToIds(Arrays.asList(3L, 4L))
+        .addToNests(7)
+        .addToNests(7)
+        .addToWeights(1.5)
+        .addToBeaches(9L)
+        .addToNames("Tom")
+        .build();
+    assertEquals(Arrays.asList(1L, 2L, 3L, 4L), turtle.ids());
+    assertEquals(Collections.singleton(7), turtle.nests());
+    assertEquals(ImmutableList.of(1.5), turtle.weights());
+    assertEquals(ImmutableSet.of(9L), turtle.beaches());
+    assertEquals(Collections.singletonList("Tom"), turtle.names());
+  }
+
+  @Test
+  void testEmpty() {
+    TallyTurtle turtle = TallyTurtle_Builder.builder().build();
+    assertEquals(Collections.emptyList(), turtle.ids());
+    assertEquals(Collections.emptySet(), turtle.nests());
+    assertEquals(ImmutableList.of(), turtle.weights());
+    assertEquals(ImmutableSet.of(), turtle.beaches());
+  }
+
+  @Test
+  void testAddToAfterToBuilder() {
+    TallyTurtle turtle = TallyTurtle_Builder.builder()
+        .ids(Arrays.asList(1L, 2L))
+        .addToWeights(1.5)
+        .build();
+    TallyTurtle next = turtle.toBuilder()
+        .addToIds(3L)
+        .addToWeights(2.5)
+        .build();
+    TallyTurtle third = next.toBuilder()
+        .addToIds(next.ids())
+        .build();
+    assertEquals(Arrays.asList(1L, 2L), turtle.ids());
+    assertEquals(Arrays.asList(1L, 2L, 3L), next.ids());
+    assertEquals(ImmutableList.of(1.5, 2.5), next.weights());
+    assertEquals(Arrays.asList(1L, 2L, 3L, 1L, 2L, 3L), third.ids());
+  }
+
+  @Test
+  void testBuiltListIsIndependent() {
+    TallyTurtle_Builder builder = TallyTurtle_Builder.builder().addToIds(1L);
+    TallyTurtle first = builder.build();
+    TallyTurtle second = builder.addToIds(2L).build();
+    assertEquals(Collections.singletonList(1L), first.ids());
+    assertEquals(Arrays.asList(1L, 2L), second.ids());
+    assertThrows(UnsupportedOperationException.class, () -> first.ids().add(3L));
+    assertThrows(IndexOutOfBoundsException.class, () -> first.ids().get(1));
+  }
+
+  @Test
+  void testBuiltSetIsUnmodifiable() {
+    TallyTurtle turtle = TallyTurtle_Builder.builder().addToNests(7).build();
+    assertThrows(UnsupportedOperationException.class, () -> turtle.nests().add(8));
+  }
+
+  @Test
+  void testNullElement() {
+    TallyTurtle_Builder builder = TallyTurtle_Builder.builder();
+    assertThrows(NullPointerException.class, () -> builder.addToIds((Long) null));
+    assertThrows(NullPointerException.class, () -> builder.addToNests(Arrays.asList(1, null)));
+  }
+}